@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.client;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Creates the {@link AsyncClientHttpRequestFactory} used to talk to hypermedia endpoints:
+ * a pooled non-blocking client if Apache HttpAsyncClient is on the classpath, or else the
+ * JDK client on a bounded executor (one thread per connection and a queue of the same
+ * size, beyond which requests are rejected rather than queued without limit). Either
+ * way the factory is a {@link DisposableBean} that releases its threads and connections.
+ *
+ * @author Dave Syer
+ *
+ */
+public abstract class AsyncClientHttpRequestFactories {
+
+	private static final String HTTP_ASYNC_CLIENT = "org.apache.http.nio.client.HttpAsyncClient";
+
+	/**
+	 * Create a request factory.
+	 * @param threadNamePrefix the prefix for the names of the executor threads (if the
+	 * JDK client is used)
+	 * @param maxConnections the maximum number of connections
+	 * @param maxPerRoute the maximum number of connections to a single host (if
+	 * HttpAsyncClient is used)
+	 * @param timeout the connect and read timeout (milliseconds)
+	 * @return a request factory (that is also a {@link DisposableBean})
+	 */
+	public static AsyncClientHttpRequestFactory create(String threadNamePrefix,
+			int maxConnections, int maxPerRoute, int timeout) {
+		if (ClassUtils.isPresent(HTTP_ASYNC_CLIENT, null)) {
+			return HttpAsyncClientFactory.create(maxConnections, maxPerRoute, timeout);
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix(threadNamePrefix);
+		executor.setDaemon(true);
+		executor.setCorePoolSize(maxConnections);
+		executor.setMaxPoolSize(maxConnections);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setQueueCapacity(maxConnections);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.initialize();
+		ExecutorRequestFactory factory = new ExecutorRequestFactory(executor);
+		factory.setConnectTimeout(timeout);
+		factory.setReadTimeout(timeout);
+		return factory;
+	}
+
+	/**
+	 * The JDK client on an executor that is shut down with the factory.
+	 */
+	private static class ExecutorRequestFactory extends SimpleClientHttpRequestFactory
+			implements DisposableBean {
+
+		private final ThreadPoolTaskExecutor executor;
+
+		ExecutorRequestFactory(ThreadPoolTaskExecutor executor) {
+			this.executor = executor;
+			setTaskExecutor(executor);
+		}
+
+		@Override
+		public void destroy() {
+			this.executor.shutdown();
+		}
+
+	}
+
+	/**
+	 * Keeps the Apache HttpAsyncClient types out of the methods of the enclosing class,
+	 * so it loads without them.
+	 */
+	private static class HttpAsyncClientFactory {
+
+		public static AsyncClientHttpRequestFactory create(int maxConnections,
+				int maxPerRoute, int timeout) {
+			CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+					.setMaxConnTotal(maxConnections).setMaxConnPerRoute(maxPerRoute)
+					.build();
+			client.start();
+			HttpComponentsAsyncClientHttpRequestFactory factory = new HttpComponentsAsyncClientHttpRequestFactory(
+					client);
+			factory.setConnectTimeout(timeout);
+			factory.setReadTimeout(timeout);
+			return factory;
+		}
+
+	}
+
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.client;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+
+/**
+ * Client for the HAL resources served by the Spring Boot hypermedia endpoints, in the
+ * style of the Spring HATEOAS {@code Traverson}. It starts from the links index (the
+ * resource served by the {@code LinksMvcEndpoint}) and follows rels from there.
+ * <p>
+ * The links of every document it reads are cached per URL. The cache honours the
+ * server's {@code Cache-Control} header and revalidates with {@code If-None-Match} if the
+ * server sent an {@code ETag}, so following a rel from a known document does not usually
+ * cost a request for the document itself. Links are read from the {@code _links} of the
+ * body and from any {@code Link} headers.
+ * <p>
+ * All requests are asynchronous. By default they go through a pooled non-blocking client
+ * if Apache HttpAsyncClient is on the classpath, and through the JDK client on a bounded
+ * executor if it is not (see {@link AsyncClientHttpRequestFactories}).
+ * {@link #followAll(Class, String...)} follows several rels at once.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaClient implements DisposableBean {
+
+	private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+	private static final List<MediaType> ACCEPT = Arrays.asList(MediaTypes.HAL_JSON,
+			MediaType.APPLICATION_JSON);
+
+	private final String root;
+
+	private final AsyncRestTemplate template;
+
+	private final Object resources;
+
+	private final ConcurrentMap<String, CachedLinks> cache = new ConcurrentHashMap<String, CachedLinks>();
+
+	private final ConcurrentMap<String, SettableListenableFuture<Map<String, Link>>> pending = new ConcurrentHashMap<String, SettableListenableFuture<Map<String, Link>>>();
+
+	private long defaultMaxAge = 0;
+
+	private long timeout;
+
+	/**
+	 * Create a client for the links index at the given URL, with its own connection pool
+	 * (100 connections, 5 second timeouts).
+	 * @param root the URL of the links index
+	 */
+	public HypermediaClient(String root) {
+		this(root, 100, 5000);
+	}
+
+	/**
+	 * Create a client for the links index at the given URL, with its own connection pool.
+	 * @param root the URL of the links index
+	 * @param maxConnections the maximum number of pooled connections
+	 * @param timeout the connect and read timeout (milliseconds)
+	 */
+	public HypermediaClient(String root, int maxConnections, int timeout) {
+		this.root = root;
+		AsyncClientHttpRequestFactory factory = AsyncClientHttpRequestFactories.create(
+				"hypermedia-client-", maxConnections, maxConnections, timeout);
+		this.resources = factory;
+		this.template = new AsyncRestTemplate(factory);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Create a client for the links index at the given URL using an existing template.
+	 * The template is not closed by {@link #destroy()}.
+	 * @param root the URL of the links index
+	 * @param template the template to send requests with
+	 */
+	public HypermediaClient(String root, AsyncRestTemplate template) {
+		this.root = root;
+		this.template = template;
+		this.resources = null;
+		this.timeout = 5000;
+	}
+
+	/**
+	 * How long (in seconds) to trust cached links from a server that does not send a
+	 * {@code Cache-Control} max-age (default 0, i.e. revalidate every time). The links
+	 * index sends an {@code ETag}, so revalidating it costs a 304 without a body, and
+	 * also a max-age if its hrefs do not depend on the request.
+	 * @param defaultMaxAge the default max age
+	 */
+	public void setDefaultMaxAge(long defaultMaxAge) {
+		this.defaultMaxAge = defaultMaxAge;
+	}
+
+	/**
+	 * How long (in milliseconds) the blocking {@link #getLinks()} and
+	 * {@link #getLink(String)} wait for the links index (default the timeout of the
+	 * client, or 5 seconds with an existing template).
+	 * @param timeout the timeout
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Read the links index, blocking until it arrives or the timeout passes. Must not be
+	 * called from a callback of one of the futures returned by this client: those run on
+	 * the threads that complete the requests, so waiting there could hold up the response
+	 * that is being waited for.
+	 * @return the links in the links index
+	 * @throws IllegalStateException if the links are not read in time
+	 */
+	public Map<String, Link> getLinks() {
+		return get(getLinks(this.root), this.timeout);
+	}
+
+	/**
+	 * Look up a link in the links index, blocking like {@link #getLinks()} (so also not
+	 * to be called from a callback).
+	 * @param rel the rel to look for
+	 * @return the link with this rel in the links index (or null if there is none)
+	 */
+	public Link getLink(String rel) {
+		return getLinks().get(rel);
+	}
+
+	/**
+	 * Read the links from the document at the given URL, using the cached copy if it is
+	 * still fresh. Concurrent reads of the same document share a single request.
+	 * @param url the URL of the document
+	 * @return a future for the links keyed by rel
+	 */
+	@SuppressWarnings("rawtypes")
+	public ListenableFuture<Map<String, Link>> getLinks(final String url) {
+		final CachedLinks cached = this.cache.get(url);
+		if (cached != null && cached.isFresh()) {
+			SettableListenableFuture<Map<String, Link>> result = new SettableListenableFuture<Map<String, Link>>();
+			result.set(cached.links);
+			return result;
+		}
+		final SettableListenableFuture<Map<String, Link>> result = new SettableListenableFuture<Map<String, Link>>();
+		SettableListenableFuture<Map<String, Link>> existing = this.pending.putIfAbsent(
+				url, result);
+		if (existing != null) {
+			return existing;
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(ACCEPT);
+		if (cached != null && cached.etag != null) {
+			headers.setIfNoneMatch(cached.etag);
+		}
+		exchange(url, headers, Map.class).addCallback(
+				new ListenableFutureCallback<ResponseEntity<Map>>() {
+					@Override
+					public void onSuccess(ResponseEntity<Map> response) {
+						HypermediaClient.this.pending.remove(url);
+						HttpHeaders headers = response.getHeaders();
+						CachedLinks links;
+						if (response.getStatusCode() == HttpStatus.NOT_MODIFIED
+								&& cached != null) {
+							links = new CachedLinks(cached.links, cached.etag,
+									expires(headers));
+						}
+						else {
+							links = new CachedLinks(parseLinks(url, response),
+									headers.getETag(), expires(headers));
+						}
+						if (isCacheable(headers)) {
+							HypermediaClient.this.cache.put(url, links);
+						}
+						else {
+							HypermediaClient.this.cache.remove(url);
+						}
+						result.set(links.links);
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						HypermediaClient.this.pending.remove(url);
+						result.setException(ex);
+					}
+				});
+		return result;
+	}
+
+	/**
+	 * Follow a path of rels, starting at the links index, and read the resource at the
+	 * end. Templated links are expanded without parameters.
+	 * @param type the type of the final resource
+	 * @param rels the rels to follow in order
+	 * @return a future for the final resource
+	 */
+	public <T> ListenableFuture<T> follow(Class<T> type, String... rels) {
+		Assert.notEmpty(rels, "At least one rel is required");
+		SettableListenableFuture<T> result = new SettableListenableFuture<T>();
+		hop(this.root, rels, 0, type, result);
+		return result;
+	}
+
+	/**
+	 * Follow several rels from the links index concurrently.
+	 * @param type the type of the resources
+	 * @param rels the rels to follow
+	 * @return a future for the resources keyed by rel (in the order given), which fails
+	 * if any of them fails
+	 */
+	public <T> ListenableFuture<Map<String, T>> followAll(final Class<T> type,
+			final String... rels) {
+		final SettableListenableFuture<Map<String, T>> result = new SettableListenableFuture<Map<String, T>>();
+		if (rels.length == 0) {
+			result.set(Collections.<String, T> emptyMap());
+			return result;
+		}
+		final Map<String, T> values = new ConcurrentHashMap<String, T>();
+		final AtomicInteger remaining = new AtomicInteger(rels.length);
+		getLinks(this.root).addCallback(
+				new ListenableFutureCallback<Map<String, Link>>() {
+					@Override
+					public void onSuccess(Map<String, Link> links) {
+						for (final String rel : rels) {
+							Link link = links.get(rel);
+							if (link == null) {
+								result.setException(new IllegalStateException(
+										"No link with rel '" + rel + "' at "
+												+ HypermediaClient.this.root));
+								return;
+							}
+							read(href(link), type).addCallback(
+									new ListenableFutureCallback<T>() {
+										@Override
+										public void onSuccess(T value) {
+											if (value != null) {
+												values.put(rel, value);
+											}
+											if (remaining.decrementAndGet() == 0) {
+												Map<String, T> ordered = new LinkedHashMap<String, T>();
+												for (String key : rels) {
+													if (values.containsKey(key)) {
+														ordered.put(key, values.get(key));
+													}
+												}
+												result.set(ordered);
+											}
+										}
+
+										@Override
+										public void onFailure(Throwable ex) {
+											result.setException(ex);
+										}
+									});
+						}
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						result.setException(ex);
+					}
+				});
+		return result;
+	}
+
+	/**
+	 * Forget all cached links.
+	 */
+	public void evict() {
+		this.cache.clear();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (this.resources instanceof DisposableBean) {
+			((DisposableBean) this.resources).destroy();
+		}
+	}
+
+	private <T> void hop(final String url, final String[] rels, final int index,
+			final Class<T> type, final SettableListenableFuture<T> result) {
+		getLinks(url).addCallback(new ListenableFutureCallback<Map<String, Link>>() {
+			@Override
+			public void onSuccess(Map<String, Link> links) {
+				Link link = links.get(rels[index]);
+				if (link == null) {
+					result.setException(new IllegalStateException("No link with rel '"
+							+ rels[index] + "' at " + url));
+				}
+				else if (index < rels.length - 1) {
+					hop(href(link), rels, index + 1, type, result);
+				}
+				else {
+					read(href(link), type).addCallback(new ListenableFutureCallback<T>() {
+						@Override
+						public void onSuccess(T value) {
+							result.set(value);
+						}
+
+						@Override
+						public void onFailure(Throwable ex) {
+							result.setException(ex);
+						}
+					});
+				}
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+				result.setException(ex);
+			}
+		});
+	}
+
+	private <T> ListenableFuture<T> read(String url, Class<T> type) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(ACCEPT);
+		final SettableListenableFuture<T> result = new SettableListenableFuture<T>();
+		exchange(url, headers, type).addCallback(
+				new ListenableFutureCallback<ResponseEntity<T>>() {
+					@Override
+					public void onSuccess(ResponseEntity<T> response) {
+						result.set(response.getBody());
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						result.setException(ex);
+					}
+				});
+		return result;
+	}
+
+	private <T> ListenableFuture<ResponseEntity<T>> exchange(String url,
+			HttpHeaders headers, Class<T> type) {
+		try {
+			return this.template.exchange(url, HttpMethod.GET, new HttpEntity<Void>(
+					headers), type);
+		}
+		catch (RuntimeException ex) {
+			// e.g. the executor is saturated: fail this request like any other
+			SettableListenableFuture<ResponseEntity<T>> failed = new SettableListenableFuture<ResponseEntity<T>>();
+			failed.setException(ex);
+			return failed;
+		}
+	}
+
+	private long expires(HttpHeaders headers) {
+		long maxAge = this.defaultMaxAge;
+		String cacheControl = headers.getCacheControl();
+		if (cacheControl != null) {
+			Matcher matcher = MAX_AGE.matcher(cacheControl);
+			if (cacheControl.contains("no-cache")) {
+				maxAge = 0;
+			}
+			else if (matcher.find()) {
+				maxAge = Long.parseLong(matcher.group(1));
+			}
+		}
+		return System.currentTimeMillis() + maxAge * 1000;
+	}
+
+	private boolean isCacheable(HttpHeaders headers) {
+		String cacheControl = headers.getCacheControl();
+		return cacheControl == null || !cacheControl.contains("no-store");
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Map<String, Link> parseLinks(String url, ResponseEntity<Map> response) {
+		Map<String, Link> links = new LinkedHashMap<String, Link>();
+		Map<String, Object> body = response.getBody();
+		Object value = body == null ? null : body.get("_links");
+		if (value instanceof Map) {
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) value)
+					.entrySet()) {
+				Object link = entry.getValue();
+				if (link instanceof List && !((List<?>) link).isEmpty()) {
+					link = ((List<?>) link).get(0);
+				}
+				if (link instanceof Map) {
+					Object href = ((Map<String, Object>) link).get("href");
+					if (href instanceof String) {
+						links.put(entry.getKey(), new Link(resolve(url, (String) href),
+								entry.getKey()));
+					}
+				}
+			}
+		}
+		List<String> headers = response.getHeaders().get("Link");
+		if (headers != null) {
+			for (String header : headers) {
+				for (Link link : Links.valueOf(header)) {
+					if (!links.containsKey(link.getRel())) {
+						links.put(link.getRel(), new Link(resolve(url, link.getHref()),
+								link.getRel()));
+					}
+				}
+			}
+		}
+		return Collections.unmodifiableMap(links);
+	}
+
+	private static String resolve(String base, String href) {
+		if (href.contains("://")) {
+			return href;
+		}
+		URI uri = URI.create(base);
+		if (href.startsWith("/")) {
+			return uri.getScheme() + "://" + uri.getRawAuthority() + href;
+		}
+		return uri.resolve(href).toString();
+	}
+
+	private static String href(Link link) {
+		return link.isTemplated() ? link.expand().getHref() : link.getHref();
+	}
+
+	private static <T> T get(ListenableFuture<T> future, long timeout) {
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", ex);
+		}
+		catch (TimeoutException ex) {
+			// Not cancelled: the future may be shared with other readers of the same URL
+			throw new IllegalStateException("No links after " + timeout + "ms", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Cannot read links", cause);
+		}
+	}
+
+	private static class CachedLinks {
+
+		private final Map<String, Link> links;
+
+		private final String etag;
+
+		private final long expires;
+
+		public CachedLinks(Map<String, Link> links, String etag, long expires) {
+			this.links = links;
+			this.etag = etag;
+			this.expires = expires;
+		}
+
+		public boolean isFresh() {
+			return System.currentTimeMillis() < this.expires;
+		}
+
+	}
+
+}
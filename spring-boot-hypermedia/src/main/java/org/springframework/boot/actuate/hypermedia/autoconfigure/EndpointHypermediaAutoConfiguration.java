@@ -16,67 +16,99 @@
 
 package org.springframework.boot.actuate.hypermedia.autoconfigure;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.ConfigurationPropertiesReportEndpoint;
+import org.springframework.boot.actuate.endpoint.DumpEndpoint;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.EnvironmentEndpoint;
+import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaStartupReport.Phase;
+import org.springframework.boot.actuate.hypermedia.converter.CborHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.converter.EndpointBinaryHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.converter.EndpointResourceWriter;
+import org.springframework.boot.actuate.hypermedia.converter.EndpointResourceXmlHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.converter.GsonHalConverterPostProcessor;
+import org.springframework.boot.actuate.hypermedia.converter.SmileHttpMessageConverter;
 import org.springframework.boot.actuate.hypermedia.endpoints.ActuatorDocsEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.ClusterMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.ConfigVersionsMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointWarmup;
 import org.springframework.boot.actuate.hypermedia.endpoints.HalBrowserEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.HrefBuilder;
+import org.springframework.boot.actuate.hypermedia.endpoints.HrefBuilderCurieProvider;
+import org.springframework.boot.actuate.hypermedia.endpoints.HypermediaMetadata;
+import org.springframework.boot.actuate.hypermedia.endpoints.LazyResourceHandlerMapping;
 import org.springframework.boot.actuate.hypermedia.endpoints.LinksEnhancer;
 import org.springframework.boot.actuate.hypermedia.endpoints.LinksMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.MetricHistoryMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.ProfileMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.SnapshotMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.ThreadDumpMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.WarmupRequestFilterPostProcessor;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnResource;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
 import org.springframework.boot.autoconfigure.hateoas.HypermediaAutoConfiguration;
-import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
 import org.springframework.boot.autoconfigure.web.ResourceProperties;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ConditionContext;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.RelProvider;
 import org.springframework.hateoas.ResourceSupport;
-import org.springframework.hateoas.UriTemplate;
 import org.springframework.hateoas.hal.CurieProvider;
 import org.springframework.hateoas.hal.DefaultCurieProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.util.TypeUtils;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
-import com.fasterxml.jackson.annotation.JsonAnyGetter;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.gson.Gson;
 
 /**
  * Autoconfiguration for hypermedia in HTTP endpoints.
@@ -91,15 +123,51 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
 @AutoConfigureAfter(HypermediaAutoConfiguration.class)
 public class EndpointHypermediaAutoConfiguration {
 
+	private static final String SPRING_SECURITY_MARKER = "org.springframework.security.config.annotation.web.configuration.EnableWebSecurity";
+
+	@Bean
+	@Conditional(StartupReportCondition.class)
+	public static HypermediaStartupReportPostProcessor hypermediaStartupReportPostProcessor() {
+		return new HypermediaStartupReportPostProcessor();
+	}
+
 	@Bean
 	@ConditionalOnProperty(value = "endpoints.links.enabled", matchIfMissing = true)
 	public LinksMvcEndpoint linksMvcEndpoint(ResourceProperties resources) {
 		return new LinksMvcEndpoint(resources.getWelcomePage() != null ? "/links" : "");
 	}
 
+	@Bean
+	public HrefBuilder hrefBuilder(LinksMvcEndpoint linksEndpoint) {
+		return new HrefBuilder(linksEndpoint.getHrefMode(), linksEndpoint.getBaseUrl());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public HypermediaMetadata hypermediaMetadata() {
+		return new HypermediaMetadata();
+	}
+
+	@Bean
+	public LinksEnhancer linksEnhancer(MvcEndpoints endpoints,
+			ManagementServerProperties management, HrefBuilder hrefs,
+			LinksMvcEndpoint linksEndpoint, HypermediaMetadata metadata) {
+		LinksEnhancer enhancer = new LinksEnhancer(endpoints,
+				management.getContextPath(), hrefs, metadata);
+		Boolean filter = linksEndpoint.getFilterSensitive();
+		if (filter == null) {
+			filter = management.getSecurity().isEnabled()
+					&& ClassUtils.isPresent(SPRING_SECURITY_MARKER, null);
+		}
+		if (filter) {
+			enhancer.setRole(management.getSecurity().getRole());
+		}
+		return enhancer;
+	}
+
 	@Bean
 	@ConditionalOnProperty(value = "endpoints.hal.enabled", matchIfMissing = true)
-	@ConditionalOnResource(resources = "classpath:/META-INF/resources/webjars/hal-browser/b7669f1-1")
+	@ConditionalOnHypermediaResource(resources = HypermediaIndex.HAL_BROWSER)
 	@Conditional(MissingSpringDataRestResourceCondition.class)
 	public HalBrowserEndpoint halBrowserMvcEndpoint(
 			ManagementServerProperties management, ResourceProperties resources) {
@@ -109,7 +177,7 @@ public class EndpointHypermediaAutoConfiguration {
 
 	@Bean
 	@ConditionalOnProperty(value = "endpoints.docs.enabled", matchIfMissing = true)
-	@ConditionalOnResource(resources = "classpath:/META-INF/resources/spring-boot-actuator/docs/index.html")
+	@ConditionalOnHypermediaResource(resources = HypermediaIndex.DOCS)
 	public ActuatorDocsEndpoint actuatorDocsEndpoint(ManagementServerProperties management) {
 		return new ActuatorDocsEndpoint(management);
 	}
@@ -119,28 +187,296 @@ public class EndpointHypermediaAutoConfiguration {
 	@ConditionalOnMissingBean(CurieProvider.class)
 	@ConditionalOnProperty(value = "endpoints.docs.curies.enabled", matchIfMissing = false)
 	public DefaultCurieProvider curieProvider(ServerProperties server,
-			ManagementServerProperties management, ActuatorDocsEndpoint endpoint) {
+			ManagementServerProperties management, ActuatorDocsEndpoint endpoint,
+			HrefBuilder hrefs, HypermediaMetadata metadata) {
 		String path = management.getContextPath() + endpoint.getPath()
 				+ "/#spring_boot_actuator__{rel}";
-		if (server.getPort() == management.getPort() && management.getPort() != null && management.getPort() != 0) {
+		if (!hrefs.isConstant() && server.getPort() == management.getPort() && management.getPort() != null && management.getPort() != 0) {
 			path = server.getPath(path);
 		}
-		return new DefaultCurieProvider("boot", new UriTemplate(path));
+		return new HrefBuilderCurieProvider("boot", path, hrefs, metadata);
+	}
+
+	@Bean
+	@ConditionalOnProperty(value = "endpoints.cluster.enabled", matchIfMissing = false)
+	public ClusterMvcEndpoint clusterMvcEndpoint() {
+		return new ClusterMvcEndpoint();
+	}
+
+	@Bean
+	@ConditionalOnProperty(value = "endpoints.profile.enabled", matchIfMissing = false)
+	public ProfileMvcEndpoint profileMvcEndpoint(ManagementServerProperties management,
+			HrefBuilder hrefs) {
+		return new ProfileMvcEndpoint(management, hrefs);
+	}
+
+	@Bean
+	@ConditionalOnBean(DumpEndpoint.class)
+	@ConditionalOnProperty(value = "endpoints.dump.stream.enabled", matchIfMissing = true)
+	public ThreadDumpMvcEndpoint threadDumpMvcEndpoint(DumpEndpoint delegate,
+			ManagementServerProperties management, HrefBuilder hrefs) {
+		return new ThreadDumpMvcEndpoint(delegate, management, hrefs);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public EndpointResourceWriter endpointResourceWriter() {
+		return new EndpointResourceWriter();
+	}
+
+	@Bean
+	@ConditionalOnBean(MetricsEndpoint.class)
+	@ConditionalOnProperty(value = "endpoints.metrics.history.enabled", matchIfMissing = false)
+	public MetricHistoryMvcEndpoint metricHistoryMvcEndpoint(MetricsEndpoint metrics,
+			ManagementServerProperties management, HrefBuilder hrefs) {
+		return new MetricHistoryMvcEndpoint(metrics, management, hrefs);
+	}
+
+	/**
+	 * An {@link ObjectMapper} for HAL with the given (e.g. binary) factory. The shared
+	 * builder is not modified, just applied, so that the spring.jackson.* settings and
+	 * registered modules carry over to the alternative format.
+	 */
+	private static ObjectMapper halObjectMapper(JsonFactory factory,
+			Jackson2ObjectMapperBuilder builder, RelProvider relProvider,
+			CurieProvider curieProvider) {
+		ObjectMapper mapper = new ObjectMapper(factory);
+		if (builder != null) {
+			builder.configure(mapper);
+		}
+		mapper.registerModule(new Jackson2HalModule());
+		mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+				relProvider, curieProvider));
+		return mapper;
+	}
+
+	/**
+	 * Binary HAL representation using Smile, if it is on the classpath. The converter is
+	 * appended to the MVC converters instead of being a bean, so it never wins content
+	 * negotiation for application controllers or for a wildcard Accept header.
+	 */
+	@Configuration
+	@ConditionalOnClass(SmileFactory.class)
+	protected static class SmileConverterConfiguration extends WebMvcConfigurerAdapter {
+
+		@Autowired
+		@Qualifier("_relProvider")
+		private RelProvider relProvider;
+
+		@Autowired(required = false)
+		private CurieProvider curieProvider;
+
+		@Autowired(required = false)
+		private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+		@Override
+		public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+			ObjectMapper mapper = halObjectMapper(new SmileFactory(),
+					this.objectMapperBuilder, this.relProvider, this.curieProvider);
+			converters.add(new SmileHttpMessageConverter(mapper));
+		}
+
+	}
+
+	/**
+	 * Binary HAL representation using CBOR, if it is on the classpath. The converter is
+	 * appended to the MVC converters instead of being a bean, so it never wins content
+	 * negotiation for application controllers or for a wildcard Accept header.
+	 */
+	@Configuration
+	@ConditionalOnClass(CBORFactory.class)
+	protected static class CborConverterConfiguration extends WebMvcConfigurerAdapter {
+
+		@Autowired
+		@Qualifier("_relProvider")
+		private RelProvider relProvider;
+
+		@Autowired(required = false)
+		private CurieProvider curieProvider;
+
+		@Autowired(required = false)
+		private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+		@Override
+		public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+			ObjectMapper mapper = halObjectMapper(new CBORFactory(),
+					this.objectMapperBuilder, this.relProvider, this.curieProvider);
+			converters.add(new CborHttpMessageConverter(mapper));
+		}
+
+	}
+
+	/**
+	 * Periodic snapshots of other endpoints in a ring file, if enabled.
+	 */
+	@Configuration
+	@ConditionalOnProperty(value = "endpoints.snapshots.enabled", matchIfMissing = false)
+	protected static class SnapshotConfiguration {
+
+		@Autowired
+		@Qualifier("_relProvider")
+		private RelProvider relProvider;
+
+		@Autowired(required = false)
+		private CurieProvider curieProvider;
+
+		@Autowired(required = false)
+		private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+		// Lazy because MvcEndpoints collects this endpoint when it is created
+		@Autowired
+		@Lazy
+		private MvcEndpoints mvcEndpoints;
+
+		@Bean
+		public SnapshotMvcEndpoint snapshotMvcEndpoint(List<Endpoint<?>> endpoints,
+				ManagementServerProperties management, HrefBuilder hrefs) {
+			SnapshotMvcEndpoint endpoint = new SnapshotMvcEndpoint(endpoints,
+					management, halObjectMapper(new JsonFactory(),
+							this.objectMapperBuilder, this.relProvider,
+							this.curieProvider), hrefs);
+			endpoint.setMvcEndpoints(this.mvcEndpoints);
+			return endpoint;
+		}
+
+	}
+
+	/**
+	 * Warm-up of the management endpoints once the application is ready, if enabled.
+	 */
+	@Configuration
+	@ConditionalOnProperty(value = "endpoints.links.warmup.enabled", matchIfMissing = false)
+	protected static class WarmupConfiguration {
+
+		@Autowired(required = false)
+		private GaugeService gaugeService;
+
+		@Bean
+		public EndpointWarmup endpointWarmup(ServerProperties server,
+				ManagementServerProperties management, LinksMvcEndpoint links) {
+			EndpointWarmup warmup = new EndpointWarmup(server, management, links);
+			warmup.setGaugeService(this.gaugeService);
+			return warmup;
+		}
+
+		@Bean
+		public static WarmupRequestFilterPostProcessor warmupRequestFilterPostProcessor() {
+			return new WarmupRequestFilterPostProcessor();
+		}
+
+	}
+
+	/**
+	 * Versions and diffs of the environment and configuration properties reports, if
+	 * enabled.
+	 */
+	@Configuration
+	@ConditionalOnProperty(value = "endpoints.config-versions.enabled", matchIfMissing = false)
+	protected static class ConfigVersionsConfiguration {
+
+		@Bean
+		@ConditionalOnBean(EnvironmentEndpoint.class)
+		public ConfigVersionsMvcEndpoint envVersionsMvcEndpoint(
+				EnvironmentEndpoint endpoint, ManagementServerProperties management,
+				HrefBuilder hrefs) {
+			return new ConfigVersionsMvcEndpoint(endpoint, management, hrefs);
+		}
+
+		@Bean
+		@ConditionalOnBean(ConfigurationPropertiesReportEndpoint.class)
+		public ConfigVersionsMvcEndpoint configpropsVersionsMvcEndpoint(
+				ConfigurationPropertiesReportEndpoint endpoint,
+				ManagementServerProperties management, HrefBuilder hrefs) {
+			return new ConfigVersionsMvcEndpoint(endpoint, management, hrefs);
+		}
+
+	}
+
+	/**
+	 * Stub handler mapping for the HAL browser and docs resources, if either of them is
+	 * lazy.
+	 */
+	@Configuration
+	@ConditionalOnExpression("${endpoints.hal.lazy:false} or ${endpoints.docs.lazy:false}")
+	protected static class LazyResourceConfiguration {
+
+		@Autowired(required = false)
+		private HalBrowserEndpoint halBrowserEndpoint;
+
+		@Autowired(required = false)
+		private ActuatorDocsEndpoint docsEndpoint;
+
+		@Bean
+		public LazyResourceHandlerMapping lazyResourceHandlerMapping() {
+			LazyResourceHandlerMapping mapping = new LazyResourceHandlerMapping();
+			if (this.halBrowserEndpoint != null) {
+				this.halBrowserEndpoint.addResourceHandlers(mapping);
+			}
+			if (this.docsEndpoint != null) {
+				this.docsEndpoint.addResourceHandlers(mapping);
+			}
+			return mapping;
+		}
+
+	}
+
+	/**
+	 * HAL rendering for Gson, if it is the preferred JSON mapper.
+	 */
+	@Configuration
+	@ConditionalOnClass(Gson.class)
+	@ConditionalOnProperty(value = "spring.http.converters.preferred-json-mapper", havingValue = "gson")
+	protected static class GsonHalConfiguration {
+
+		@Bean
+		public static GsonHalConverterPostProcessor gsonHalConverterPostProcessor() {
+			return new GsonHalConverterPostProcessor();
+		}
+
 	}
 
 	@Configuration("EndpointHypermediaAutoConfiguration.MissingResourceCondition")
-	@ConditionalOnResource(resources = "classpath:/META-INF/spring-data-rest/hal-browser/index.html")
+	@ConditionalOnHypermediaResource(resources = HypermediaIndex.SPRING_DATA_REST_HAL_BROWSER)
 	protected static class MissingSpringDataRestResourceCondition extends
 	SpringBootCondition {
 		@Override
 		public ConditionOutcome getMatchOutcome(ConditionContext context,
 				AnnotatedTypeMetadata metadata) {
+			long start = System.nanoTime();
+			ConditionOutcome outcome = ConditionOutcome
+					.match("Spring Data REST HAL browser not found");
 			if (context.getRegistry().containsBeanDefinition(
 					"EndpointHypermediaAutoConfiguration.MissingResourceCondition")) {
-				return ConditionOutcome.noMatch("Spring Data REST HAL browser found");
+				outcome = ConditionOutcome.noMatch("Spring Data REST HAL browser found");
+			}
+			if (context.getBeanFactory() != null) {
+				HypermediaStartupReport.get(context.getBeanFactory()).record(
+						Phase.CONDITIONS, getClass().getName(),
+						System.nanoTime() - start);
+			}
+			return outcome;
+		}
+	}
+
+	/**
+	 * Bean creation is only timed (by a post processor that sees every bean) when the
+	 * startup report is going to be logged or has been asked for explicitly.
+	 */
+	protected static class StartupReportCondition extends SpringBootCondition {
+
+		@Override
+		public ConditionOutcome getMatchOutcome(ConditionContext context,
+				AnnotatedTypeMetadata metadata) {
+			if (context.getEnvironment().getProperty(
+					"endpoints.links.startup-report.enabled", Boolean.class, false)) {
+				return ConditionOutcome.match("Startup report enabled");
+			}
+			if (HypermediaStartupReport.isLogged()) {
+				return ConditionOutcome.match("Startup report logged at debug level");
 			}
-			return ConditionOutcome.match("Spring Data REST HAL browser not found");
+			return ConditionOutcome.noMatch("Startup report not logged");
 		}
+
 	}
 
 	/**
@@ -154,22 +490,17 @@ public class EndpointHypermediaAutoConfiguration {
 	@ControllerAdvice
 	public static class HomePageLinksAdvice implements ResponseBodyAdvice<Object> {
 
-		@Autowired
-		MvcEndpoints endpoints;
-
 		@Autowired
 		LinksMvcEndpoint linksEndpoint;
 
 		@Autowired
 		ManagementServerProperties management;
 
-		private LinksEnhancer linksEnhancer;
+		@Autowired
+		LinksEnhancer linksEnhancer;
 
-		@PostConstruct
-		public void init() {
-			this.linksEnhancer = new LinksEnhancer(this.endpoints,
-					this.management.getContextPath());
-		}
+		@Autowired
+		HrefBuilder hrefs;
 
 		@Override
 		public boolean supports(MethodParameter returnType,
@@ -202,11 +533,21 @@ public class EndpointHypermediaAutoConfiguration {
 						ResourceSupport resource = (ResourceSupport) body;
 						if (isHomePage(path) && hasManagementPath()) {
 							String rel = this.management.getContextPath().substring(1);
-							resource.add(linkTo(EndpointHypermediaAutoConfiguration.class)
-									.slash(this.management.getContextPath()).withRel(rel));
+							resource.add(new Link(this.hrefs.href(this.management
+									.getContextPath()), rel));
 						}
 						else {
-							this.linksEnhancer.addEndpointLinks(resource, "");
+							this.linksEnhancer.addEndpointLinks(resource,
+									isLinksPath(path) ? this.linksEndpoint.getPath() : "");
+						}
+						LinksMvcEndpoint.addLinkHeaders(response.getHeaders(),
+								resource.getLinks());
+						if (LinksMvcEndpoint.class.isAssignableFrom(returnType
+								.getDeclaringClass())
+								&& this.linksEndpoint.addCacheHeaders(
+										response.getHeaders(), resource.getLinks(),
+										request.getHeaders().getIfNoneMatch())) {
+							return notModified(response);
 						}
 					}
 				}
@@ -214,6 +555,17 @@ public class EndpointHypermediaAutoConfiguration {
 			return body;
 		}
 
+		private Object notModified(ServerHttpResponse response) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			try {
+				response.flush();
+			}
+			catch (IOException e) {
+				throw new HttpMessageNotWritableException("Cannot write response", e);
+			}
+			return null;
+		}
+
 		private boolean hasManagementPath() {
 			return StringUtils.hasText(this.management.getContextPath());
 		}
@@ -251,13 +603,30 @@ public class EndpointHypermediaAutoConfiguration {
 		ManagementServerProperties management;
 
 		@Autowired
-		HttpMessageConverters converters;
+		@Lazy
+		RequestMappingHandlerAdapter handlerAdapter;
 
-		private Map<MediaType, HttpMessageConverter<?>> converterCache = new ConcurrentHashMap<MediaType, HttpMessageConverter<?>>();
+		private Map<String, HttpMessageConverter<?>> converterCache = new ConcurrentHashMap<String, HttpMessageConverter<?>>();
+
+		private volatile EndpointResourceXmlHttpMessageConverter xmlConverter;
 
 		@Autowired
 		ObjectMapper mapper;
 
+		@Autowired(required = false)
+		MetricHistoryMvcEndpoint metricHistory;
+
+		@Autowired
+		EndpointResourceWriter writer;
+
+		@Autowired
+		HrefBuilder hrefs;
+
+		@ModelAttribute
+		public void markEndpointRequest(HttpServletRequest request) {
+			EndpointBinaryHttpMessageConverter.markEndpointRequest(request);
+		}
+
 		@Override
 		public boolean supports(MethodParameter returnType,
 				Class<? extends HttpMessageConverter<?>> converterType) {
@@ -277,11 +646,18 @@ public class EndpointHypermediaAutoConfiguration {
 				return body;
 			}
 
-			if (body instanceof Resource) {
+			if (body instanceof ResourceSupport) {
 				// Assume it already has its links
 				return body;
 			}
 
+			if (response instanceof ServletServerHttpResponse
+					&& ((ServletServerHttpResponse) response).getServletResponse()
+					.getStatus() >= 400) {
+				// Errors (e.g. "This endpoint is disabled") are rendered as they are
+				return body;
+			}
+
 			@SuppressWarnings("unchecked")
 			HttpMessageConverter<Object> converter = (HttpMessageConverter<Object>) findConverter(
 					selectedConverterType, selectedContentType);
@@ -298,9 +674,14 @@ public class EndpointHypermediaAutoConfiguration {
 				if (path == null) {
 					path = "";
 				}
+				EndpointResource resource = new EndpointResource(body, new Link(
+						this.hrefs.href(path)));
+				if (this.metricHistory != null) {
+					this.metricHistory.addLinks(resource, path);
+				}
 				try {
-					converter.write(new EndpointResource(body, path),
-							selectedContentType, response);
+					this.writer.write(converter, resource, selectedContentType, request,
+							response);
 				}
 				catch (IOException e) {
 					throw new HttpMessageNotWritableException("Cannot write response", e);
@@ -316,44 +697,38 @@ public class EndpointHypermediaAutoConfiguration {
 		private HttpMessageConverter<?> findConverter(
 				Class<? extends HttpMessageConverter<?>> selectedConverterType,
 						MediaType mediaType) {
-			if (this.converterCache.containsKey(mediaType)) {
-				return this.converterCache.get(mediaType);
+			String key = selectedConverterType.getName() + ":" + mediaType;
+			if (this.converterCache.containsKey(key)) {
+				return this.converterCache.get(key);
 			}
-			for (HttpMessageConverter<?> converter : this.converters) {
+			if (mediaType != null && !mediaType.isWildcardType()
+					&& AbstractJackson2HttpMessageConverter.class
+					.isAssignableFrom(selectedConverterType)
+					&& getXmlConverter().canWrite(EndpointResource.class, mediaType)) {
+				// Stream XML directly instead of going through the Jackson converter
+				this.converterCache.put(key, this.xmlConverter);
+				return this.xmlConverter;
+			}
+			for (HttpMessageConverter<?> converter : this.handlerAdapter
+					.getMessageConverters()) {
 				if (selectedConverterType.isAssignableFrom(converter.getClass())
 						&& converter.canWrite(EndpointResource.class, mediaType)) {
-					this.converterCache.put(mediaType, converter);
+					this.converterCache.put(key, converter);
 					return converter;
 				}
 			}
 			return null;
 		}
 
-	}
-
-	@JsonInclude(content = Include.NON_NULL)
-	@JacksonXmlRootElement(localName = "resource")
-	private static class EndpointResource extends ResourceSupport {
-
-		private Object content;
-
-		private Map<String, Object> embedded;
-
-		@SuppressWarnings("unchecked")
-		public EndpointResource(Object content, String path) {
-			this.content = content instanceof Map ? null : content;
-			this.embedded = (Map<String, Object>) (this.content == null ? content : null);
-			add(linkTo(Object.class).slash(path).withSelfRel());
-		}
-
-		@JsonUnwrapped
-		public Object getContent() {
-			return this.content;
-		}
-
-		@JsonAnyGetter
-		public Map<String, Object> getEmbedded() {
-			return this.embedded;
+		/**
+		 * The streaming XML converter stands in for a Jackson converter, so it discovers
+		 * properties with the same {@link ObjectMapper} configuration.
+		 */
+		private EndpointResourceXmlHttpMessageConverter getXmlConverter() {
+			if (this.xmlConverter == null) {
+				this.xmlConverter = new EndpointResourceXmlHttpMessageConverter(this.mapper);
+			}
+			return this.xmlConverter;
 		}
 
 	}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.autoconfigure;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Index of the classpath resources that the hypermedia auto-configuration looks for (the
+ * HAL browser webjar, the docs, the Spring Data REST browser). The index is generated at
+ * build time by {@link HypermediaIndexGenerator} with the application's classpath, and
+ * read from {@value #LOCATION}. Only a resource that the index lists as present is
+ * taken on trust: anything else (including an application without an index) falls back
+ * to looking for the resource itself, since the index may have been generated with a
+ * different classpath.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaIndex {
+
+	/**
+	 * The location of the index on the classpath.
+	 */
+	public static final String LOCATION = "META-INF/spring-boot-hypermedia.index";
+
+	static final String HAL_BROWSER = "classpath:/META-INF/resources/webjars/hal-browser/b7669f1-1";
+
+	static final String DOCS = "classpath:/META-INF/resources/spring-boot-actuator/docs/index.html";
+
+	static final String SPRING_DATA_REST_HAL_BROWSER = "classpath:/META-INF/spring-data-rest/hal-browser/index.html";
+
+	/**
+	 * The resources that are indexed.
+	 */
+	static final String[] RESOURCES = { HAL_BROWSER, DOCS, SPRING_DATA_REST_HAL_BROWSER };
+
+	private static final String RESOURCE_PREFIX = "resource.";
+
+	private static final Map<ClassLoader, HypermediaIndex> indexes = new ConcurrentReferenceHashMap<ClassLoader, HypermediaIndex>();
+
+	private final Properties properties;
+
+	HypermediaIndex(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * @param location a resource location
+	 * @return whether the resource was on the classpath when the index was generated, or
+	 * null if it is not in the index
+	 */
+	public Boolean isPresent(String location) {
+		String value = this.properties.getProperty(RESOURCE_PREFIX + location);
+		return value == null ? null : Boolean.valueOf(value);
+	}
+
+	public boolean isEmpty() {
+		return this.properties.isEmpty();
+	}
+
+	Properties getProperties() {
+		return this.properties;
+	}
+
+	static String key(String location) {
+		return RESOURCE_PREFIX + location;
+	}
+
+	/**
+	 * Load (once per class loader) the index from the classpath.
+	 * @param classLoader the class loader to use
+	 * @return the index (empty if there is none)
+	 */
+	public static HypermediaIndex get(ClassLoader classLoader) {
+		HypermediaIndex index = indexes.get(classLoader);
+		if (index == null) {
+			Properties properties;
+			try {
+				properties = PropertiesLoaderUtils.loadAllProperties(LOCATION,
+						classLoader);
+			}
+			catch (IOException e) {
+				properties = new Properties();
+			}
+			index = new HypermediaIndex(properties);
+			indexes.put(classLoader, index);
+		}
+		return index;
+	}
+
+}
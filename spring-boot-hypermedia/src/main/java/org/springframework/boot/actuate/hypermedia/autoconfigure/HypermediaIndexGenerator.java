@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.autoconfigure;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Generates the {@link HypermediaIndex} for the classpath it is run with. Meant to be run
+ * in the application's build (e.g. with the exec plugin in the "process-classes" phase)
+ * with the output directory of the build as its only argument, so the index ends up in
+ * the packaged application.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaIndexGenerator {
+
+	public static void main(String[] args) throws IOException {
+		File directory = new File(args.length > 0 ? args[0] : ".");
+		File file = new File(directory, HypermediaIndex.LOCATION);
+		file.getParentFile().mkdirs();
+		OutputStream output = new FileOutputStream(file);
+		try {
+			generate(new DefaultResourceLoader()).store(output,
+					"Generated by " + HypermediaIndexGenerator.class.getSimpleName());
+		}
+		finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * @param loader the resource loader to look for resources with
+	 * @return the index properties
+	 */
+	public static Properties generate(ResourceLoader loader) {
+		Properties properties = new Properties();
+		for (String location : HypermediaIndex.RESOURCES) {
+			properties.setProperty(HypermediaIndex.key(location),
+					String.valueOf(loader.getResource(location).exists()));
+		}
+		return properties;
+	}
+
+}
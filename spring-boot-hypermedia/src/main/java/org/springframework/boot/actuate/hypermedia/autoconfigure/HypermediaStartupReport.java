@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.autoconfigure;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * Timings collected while the hypermedia auto-configuration starts up: condition
+ * evaluation, creation of the beans in this module and registration of the resource
+ * handlers. Kept as a singleton in the bean factory (like the condition evaluation
+ * report) so that conditions can record into it before any beans exist. Logged at debug
+ * level when the context is refreshed. Bean creation is only timed if the report is
+ * logged, or if "endpoints.links.startup-report.enabled=true".
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaStartupReport implements ApplicationListener<ContextRefreshedEvent> {
+
+	private static final String BEAN_NAME = "hypermediaStartupReport";
+
+	private static final Log logger = LogFactory.getLog(HypermediaStartupReport.class);
+
+	/**
+	 * The phases of startup that are timed.
+	 */
+	public enum Phase {
+
+		CONDITIONS, BEANS, RESOURCE_HANDLERS
+
+	}
+
+	private final Map<Phase, Map<String, Long>> timings = new EnumMap<Phase, Map<String, Long>>(
+			Phase.class);
+
+	private boolean logged;
+
+	HypermediaStartupReport() {
+		for (Phase phase : Phase.values()) {
+			this.timings.put(phase, new LinkedHashMap<String, Long>());
+		}
+	}
+
+	/**
+	 * Record the time taken by a single step. Repeated steps with the same name are
+	 * added together.
+	 * @param phase the phase of startup
+	 * @param name the name of the step (e.g. a bean name)
+	 * @param nanos the time taken in nanoseconds
+	 */
+	public synchronized void record(Phase phase, String name, long nanos) {
+		Map<String, Long> steps = this.timings.get(phase);
+		Long previous = steps.get(name);
+		steps.put(name, previous == null ? nanos : previous + nanos);
+	}
+
+	/**
+	 * @param phase the phase of startup
+	 * @return the time taken by each step in the phase (nanoseconds), in the order they
+	 * were first recorded
+	 */
+	public synchronized Map<String, Long> getTimings(Phase phase) {
+		return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(this.timings
+				.get(phase)));
+	}
+
+	/**
+	 * @param phase the phase of startup
+	 * @return the total time taken by the phase (nanoseconds)
+	 */
+	public synchronized long getTotal(Phase phase) {
+		long total = 0;
+		for (Long nanos : this.timings.get(phase).values()) {
+			total += nanos;
+		}
+		return total;
+	}
+
+	/**
+	 * @return true if the report is logged when the context is refreshed
+	 */
+	static boolean isLogged() {
+		return logger.isDebugEnabled();
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (!this.logged && isLogged()) {
+			this.logged = true;
+			logger.debug(toString());
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder("Hypermedia startup report\n");
+		for (Phase phase : Phase.values()) {
+			builder.append(String.format("%s: %.2fms%n", phase, getTotal(phase) / 1e6));
+			for (Entry<String, Long> step : this.timings.get(phase).entrySet()) {
+				builder.append(String.format("    %s: %.2fms%n", step.getKey(),
+						step.getValue() / 1e6));
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Obtain the report for a bean factory, creating and registering it if necessary.
+	 * @param beanFactory the bean factory
+	 * @return the startup report
+	 */
+	public static HypermediaStartupReport get(ConfigurableListableBeanFactory beanFactory) {
+		synchronized (beanFactory) {
+			if (beanFactory.containsSingleton(BEAN_NAME)) {
+				return beanFactory.getBean(BEAN_NAME, HypermediaStartupReport.class);
+			}
+			HypermediaStartupReport report = new HypermediaStartupReport();
+			beanFactory.registerSingleton(BEAN_NAME, report);
+			return report;
+		}
+	}
+
+}
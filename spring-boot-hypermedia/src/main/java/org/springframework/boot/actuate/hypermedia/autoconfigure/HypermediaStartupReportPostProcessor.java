@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.autoconfigure;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaStartupReport.Phase;
+
+/**
+ * Bean post processor that times the creation of the beans from this module, and of the
+ * resource handler mapping (which is where the HAL browser and docs resource handlers
+ * are registered), into the {@link HypermediaStartupReport}. Times are inclusive of any
+ * dependencies created along the way.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaStartupReportPostProcessor extends
+		InstantiationAwareBeanPostProcessorAdapter implements BeanFactoryAware {
+
+	private static final String PACKAGE = "org.springframework.boot.actuate.hypermedia.";
+
+	private static final String RESOURCE_HANDLER_MAPPING = "resourceHandlerMapping";
+
+	private final Map<String, Long> starts = new ConcurrentHashMap<String, Long>();
+
+	private HypermediaStartupReport report;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (beanFactory instanceof ConfigurableListableBeanFactory) {
+			this.report = HypermediaStartupReport
+					.get((ConfigurableListableBeanFactory) beanFactory);
+		}
+	}
+
+	@Override
+	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName)
+			throws BeansException {
+		if (this.report != null && isTimed(beanClass, beanName)) {
+			this.starts.put(beanName, System.nanoTime());
+		}
+		return null;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName)
+			throws BeansException {
+		Long start = this.starts.remove(beanName);
+		if (start != null) {
+			Phase phase = RESOURCE_HANDLER_MAPPING.equals(beanName) ? Phase.RESOURCE_HANDLERS
+					: Phase.BEANS;
+			this.report.record(phase, beanName, System.nanoTime() - start);
+		}
+		return bean;
+	}
+
+	private boolean isTimed(Class<?> beanClass, String beanName) {
+		return RESOURCE_HANDLER_MAPPING.equals(beanName)
+				|| (beanClass != null && beanClass.getName().startsWith(PACKAGE));
+	}
+
+}
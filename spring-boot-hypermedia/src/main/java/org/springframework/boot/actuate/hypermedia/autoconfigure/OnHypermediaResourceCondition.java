@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.autoconfigure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaStartupReport.Phase;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link SpringBootCondition} for {@link ConditionalOnHypermediaResource}. Resources that
+ * the {@link HypermediaIndex} lists as present are not looked for, unless the index is
+ * switched off with "endpoints.links.index.enabled=false". Resources that it lists as
+ * missing are still looked for, in case the index is stale.
+ *
+ * @author Dave Syer
+ *
+ */
+class OnHypermediaResourceCondition extends SpringBootCondition {
+
+	private static final Log logger = LogFactory.getLog(OnHypermediaResourceCondition.class);
+
+	private final ResourceLoader defaultResourceLoader = new DefaultResourceLoader();
+
+	@Override
+	public ConditionOutcome getMatchOutcome(ConditionContext context,
+			AnnotatedTypeMetadata metadata) {
+		long start = System.nanoTime();
+		ConditionOutcome outcome = getResourceOutcome(context, metadata);
+		if (context.getBeanFactory() != null) {
+			HypermediaStartupReport.get(context.getBeanFactory()).record(
+					Phase.CONDITIONS, getName(metadata), System.nanoTime() - start);
+		}
+		return outcome;
+	}
+
+	private ConditionOutcome getResourceOutcome(ConditionContext context,
+			AnnotatedTypeMetadata metadata) {
+		MultiValueMap<String, Object> attributes = metadata.getAllAnnotationAttributes(
+				ConditionalOnHypermediaResource.class.getName(), true);
+		ResourceLoader loader = context.getResourceLoader() == null ? this.defaultResourceLoader
+				: context.getResourceLoader();
+		HypermediaIndex index = isIndexEnabled(context) ? HypermediaIndex.get(context
+				.getClassLoader()) : null;
+		List<String> missing = new ArrayList<String>();
+		for (Object value : attributes.get("resources")) {
+			for (String location : (String[]) value) {
+				location = context.getEnvironment().resolvePlaceholders(location);
+				Boolean indexed = index == null ? null : index.isPresent(location);
+				// Only trust the index if it says the resource is there: a stale index
+				// must not switch features off, and probing is cheap
+				boolean present = Boolean.TRUE.equals(indexed)
+						|| loader.getResource(location).exists();
+				if (indexed != null && indexed != present && logger.isDebugEnabled()) {
+					logger.debug("Hypermedia index is out of date for " + location
+							+ " (indexed: " + indexed + ", found: " + present + ")");
+				}
+				if (!present) {
+					missing.add(location);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			return ConditionOutcome.noMatch("resource not found: " + missing);
+		}
+		return ConditionOutcome.match("resources found");
+	}
+
+	private boolean isIndexEnabled(ConditionContext context) {
+		return context.getEnvironment().getProperty("endpoints.links.index.enabled",
+				Boolean.class, true);
+	}
+
+	private String getName(AnnotatedTypeMetadata metadata) {
+		if (metadata instanceof MethodMetadata) {
+			MethodMetadata method = (MethodMetadata) metadata;
+			return method.getDeclaringClassName() + "#" + method.getMethodName();
+		}
+		if (metadata instanceof ClassMetadata) {
+			return ((ClassMetadata) metadata).getClassName();
+		}
+		return metadata.toString();
+	}
+
+}
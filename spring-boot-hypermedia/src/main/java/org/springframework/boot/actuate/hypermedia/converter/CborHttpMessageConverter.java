@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} that writes and reads
+ * CBOR ("application/cbor"). The object mapper must have been created with a
+ * {@link CBORFactory}.
+ *
+ * @author Dave Syer
+ *
+ */
+public class CborHttpMessageConverter extends EndpointBinaryHttpMessageConverter {
+
+	public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+	public CborHttpMessageConverter(ObjectMapper mapper) {
+		super(mapper, APPLICATION_CBOR);
+	}
+
+}
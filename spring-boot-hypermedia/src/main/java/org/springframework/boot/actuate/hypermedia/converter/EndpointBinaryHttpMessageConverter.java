@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Base class for the binary encodings of HAL that are only offered by the actuator
+ * endpoints. These converters are not registered as beans, so they do not show up in
+ * Boot's {@code HttpMessageConverters} for the rest of the application, and they only
+ * write a response if the current request was marked as an endpoint request (see
+ * {@link #markEndpointRequest(HttpServletRequest)}) and it explicitly accepts one of
+ * the supported media types. A wildcard Accept header (or none at all) always gets
+ * JSON.
+ *
+ * @author Dave Syer
+ *
+ */
+public abstract class EndpointBinaryHttpMessageConverter extends
+		AbstractJackson2HttpMessageConverter {
+
+	private static final String ENDPOINT_REQUEST_ATTRIBUTE = EndpointBinaryHttpMessageConverter.class
+			.getName() + ".ENDPOINT_REQUEST";
+
+	protected EndpointBinaryHttpMessageConverter(ObjectMapper mapper,
+			MediaType supportedMediaType) {
+		super(mapper, supportedMediaType);
+	}
+
+	/**
+	 * Allow the binary converters to write the response to this request.
+	 * @param request the current request
+	 */
+	public static void markEndpointRequest(HttpServletRequest request) {
+		request.setAttribute(ENDPOINT_REQUEST_ATTRIBUTE, Boolean.TRUE);
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+		return isExplicitlyAccepted() && super.canWrite(clazz, mediaType);
+	}
+
+	private boolean isExplicitlyAccepted() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return false;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes)
+				.getRequest();
+		if (request.getAttribute(ENDPOINT_REQUEST_ATTRIBUTE) == null) {
+			return false;
+		}
+		List<String> accept = Collections.list(request.getHeaders(HttpHeaders.ACCEPT));
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(StringUtils
+					.collectionToCommaDelimitedString(accept));
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+		for (MediaType type : accepted) {
+			if (type.isWildcardType() || type.isWildcardSubtype()) {
+				continue;
+			}
+			for (MediaType supported : getSupportedMediaTypes()) {
+				if (supported.getType().equalsIgnoreCase(type.getType())
+						&& supported.getSubtype().equalsIgnoreCase(type.getSubtype())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.hypermedia.endpoints.AcceptEncoding;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+
+/**
+ * Writes enhanced endpoint responses through a recycled buffer so that they can be sent
+ * in a single write with an exact Content-Length. A body that grows beyond the maximum
+ * buffer size is streamed to the response instead (and is then sent chunked as usual).
+ * If the client accepts gzip and the body is big enough it is compressed with a
+ * {@link Deflater} that belongs to the buffer and is created the first time it is
+ * needed. Idle buffers are kept in a small bounded pool (not per thread), and are
+ * released when the writer is destroyed.
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.links.response")
+public class EndpointResourceWriter implements DisposableBean {
+
+	private static final int INITIAL_BUFFER_SIZE = 4096;
+
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0,
+		0, 0, 0, 0, 0, 0 };
+
+	private static final int GZIP_TRAILER_SIZE = 8;
+
+	/**
+	 * Maximum size in bytes of the per-thread response buffer. Larger responses are
+	 * streamed.
+	 */
+	private int maxBufferSize = 64 * 1024;
+
+	/**
+	 * Maximum number of idle response buffers kept for reuse.
+	 */
+	private int poolSize = 8;
+
+	private final Compression compression = new Compression();
+
+	private final Queue<ResponseBuffer> pool = new ConcurrentLinkedQueue<ResponseBuffer>();
+
+	private final AtomicInteger idle = new AtomicInteger();
+
+	public void write(HttpMessageConverter<Object> converter, Object body,
+			MediaType contentType, ServerHttpRequest request,
+			final ServerHttpResponse response) throws IOException {
+		final ResponseBuffer buffer = acquire();
+		buffer.reset(response, isCompressible(request, response),
+				this.compression.getMinResponseSize());
+		try {
+			converter.write(body, contentType, new HttpOutputMessage() {
+
+				@Override
+				public HttpHeaders getHeaders() {
+					return response.getHeaders();
+				}
+
+				@Override
+				public OutputStream getBody() throws IOException {
+					return buffer;
+				}
+
+			});
+			buffer.finish();
+		}
+		finally {
+			buffer.reset(null, false, 0);
+			release(buffer);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		ResponseBuffer buffer;
+		while ((buffer = this.pool.poll()) != null) {
+			this.idle.decrementAndGet();
+			buffer.end();
+		}
+	}
+
+	private boolean isCompressible(ServerHttpRequest request, ServerHttpResponse response) {
+		if (!this.compression.isEnabled()) {
+			return false;
+		}
+		HttpHeaders headers = response.getHeaders();
+		List<String> vary = headers.get(HttpHeaders.VARY);
+		if (vary == null || !vary.contains(HttpHeaders.ACCEPT_ENCODING)) {
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return false;
+		}
+		return AcceptEncoding.acceptsGzip(request.getHeaders().get(
+				HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	private ResponseBuffer acquire() {
+		ResponseBuffer buffer;
+		while ((buffer = this.pool.poll()) != null) {
+			this.idle.decrementAndGet();
+			if (isCurrent(buffer)) {
+				return buffer;
+			}
+			buffer.end();
+		}
+		return new ResponseBuffer(this.maxBufferSize, this.compression.getLevel());
+	}
+
+	private void release(ResponseBuffer buffer) {
+		if (isCurrent(buffer) && this.idle.incrementAndGet() <= this.poolSize) {
+			this.pool.offer(buffer);
+			return;
+		}
+		if (isCurrent(buffer)) {
+			this.idle.decrementAndGet();
+		}
+		buffer.end();
+	}
+
+	private boolean isCurrent(ResponseBuffer buffer) {
+		return buffer.max == this.maxBufferSize
+				&& buffer.level == this.compression.getLevel();
+	}
+
+	public int getMaxBufferSize() {
+		return this.maxBufferSize;
+	}
+
+	public void setMaxBufferSize(int maxBufferSize) {
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	public int getPoolSize() {
+		return this.poolSize;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public Compression getCompression() {
+		return this.compression;
+	}
+
+	/**
+	 * Compression of enhanced endpoint responses for clients that accept gzip.
+	 */
+	public static class Compression {
+
+		/**
+		 * Enable gzip compression of endpoint responses.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Minimum response size in bytes for compression to be applied.
+		 */
+		private int minResponseSize = 2048;
+
+		/**
+		 * Deflate compression level (0-9, or -1 for the default).
+		 */
+		private int level = Deflater.DEFAULT_COMPRESSION;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMinResponseSize() {
+			return this.minResponseSize;
+		}
+
+		public void setMinResponseSize(int minResponseSize) {
+			this.minResponseSize = minResponseSize;
+		}
+
+		public int getLevel() {
+			return this.level;
+		}
+
+		public void setLevel(int level) {
+			this.level = level;
+		}
+
+	}
+
+	/**
+	 * Growable byte buffer (up to a fixed maximum) that switches to writing straight
+	 * through to the response once the maximum is exceeded.
+	 */
+	private static class ResponseBuffer extends OutputStream {
+
+		private final int max;
+
+		private final int level;
+
+		private Deflater deflater;
+
+		private final CRC32 crc = new CRC32();
+
+		private byte[] bytes;
+
+		private byte[] compressed = new byte[0];
+
+		private int count;
+
+		private boolean gzip;
+
+		private int threshold;
+
+		private ServerHttpResponse response;
+
+		private OutputStream target;
+
+		private DeflaterOutputStream deflating;
+
+		public ResponseBuffer(int max, int level) {
+			this.max = max;
+			this.level = level;
+			this.bytes = new byte[Math.min(INITIAL_BUFFER_SIZE, Math.max(max, 1))];
+		}
+
+		public void end() {
+			if (this.deflater != null) {
+				this.deflater.end();
+				this.deflater = null;
+			}
+		}
+
+		private Deflater getDeflater() {
+			if (this.deflater == null) {
+				this.deflater = new Deflater(this.level, true);
+			}
+			this.deflater.reset();
+			return this.deflater;
+		}
+
+		public void reset(ServerHttpResponse response, boolean gzip, int threshold) {
+			this.response = response;
+			this.gzip = gzip;
+			this.threshold = threshold;
+			this.target = null;
+			this.deflating = null;
+			this.count = 0;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.target == null && !ensureCapacity(1)) {
+				overflow();
+			}
+			if (this.target != null) {
+				this.target.write(b);
+			}
+			else {
+				this.bytes[this.count++] = (byte) b;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.target == null && !ensureCapacity(len)) {
+				overflow();
+			}
+			if (this.target != null) {
+				this.target.write(b, off, len);
+			}
+			else {
+				System.arraycopy(b, off, this.bytes, this.count, len);
+				this.count += len;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Only pass through once streaming: the buffered body is sent by finish()
+			if (this.target != null) {
+				this.target.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+
+		public void finish() throws IOException {
+			if (this.target == null) {
+				byte[] body = this.bytes;
+				int length = this.count;
+				if (this.gzip && length >= this.threshold) {
+					length = compress();
+					body = this.compressed;
+					this.response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+				}
+				this.response.getHeaders().setContentLength(length);
+				OutputStream out = this.response.getBody();
+				out.write(body, 0, length);
+				out.flush();
+			}
+			else if (this.deflating != null) {
+				this.deflating.finish();
+				OutputStream out = this.response.getBody();
+				writeTrailer(out, this.crc.getValue(), this.deflater.getBytesRead());
+				out.flush();
+			}
+			else {
+				this.target.flush();
+			}
+		}
+
+		private boolean ensureCapacity(int extra) {
+			int required = this.count + extra;
+			if (required > this.max) {
+				return false;
+			}
+			if (required > this.bytes.length) {
+				byte[] grown = new byte[Math.min(this.max,
+						Math.max(required, this.bytes.length * 2))];
+				System.arraycopy(this.bytes, 0, grown, 0, this.count);
+				this.bytes = grown;
+			}
+			return true;
+		}
+
+		private void overflow() throws IOException {
+			OutputStream body;
+			if (this.gzip) {
+				this.response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+				body = this.response.getBody();
+				body.write(GZIP_HEADER);
+				this.crc.reset();
+				this.deflating = new DeflaterOutputStream(body, getDeflater());
+				this.target = new CheckedOutputStream(this.deflating, this.crc);
+			}
+			else {
+				this.target = this.response.getBody();
+			}
+			this.target.write(this.bytes, 0, this.count);
+			this.count = 0;
+		}
+
+		private int compress() {
+			Deflater deflater = getDeflater();
+			deflater.setInput(this.bytes, 0, this.count);
+			deflater.finish();
+			this.crc.reset();
+			this.crc.update(this.bytes, 0, this.count);
+			ensureCompressedCapacity(this.count + GZIP_HEADER.length + GZIP_TRAILER_SIZE
+					+ 64);
+			System.arraycopy(GZIP_HEADER, 0, this.compressed, 0, GZIP_HEADER.length);
+			int length = GZIP_HEADER.length;
+			while (!deflater.finished()) {
+				if (length == this.compressed.length) {
+					ensureCompressedCapacity(this.compressed.length * 2);
+				}
+				length += deflater.deflate(this.compressed, length,
+						this.compressed.length - length);
+			}
+			ensureCompressedCapacity(length + GZIP_TRAILER_SIZE);
+			putInt(this.compressed, length, (int) this.crc.getValue());
+			putInt(this.compressed, length + 4, this.count);
+			return length + GZIP_TRAILER_SIZE;
+		}
+
+		private void ensureCompressedCapacity(int size) {
+			if (this.compressed.length < size) {
+				byte[] grown = new byte[size];
+				System.arraycopy(this.compressed, 0, grown, 0, this.compressed.length);
+				this.compressed = grown;
+			}
+		}
+
+		private static void writeTrailer(OutputStream out, long crc, long size)
+				throws IOException {
+			byte[] trailer = new byte[GZIP_TRAILER_SIZE];
+			putInt(trailer, 0, (int) crc);
+			putInt(trailer, 4, (int) size);
+			out.write(trailer);
+		}
+
+		private static void putInt(byte[] bytes, int offset, int value) {
+			bytes[offset] = (byte) value;
+			bytes[offset + 1] = (byte) (value >> 8);
+			bytes[offset + 2] = (byte) (value >> 16);
+			bytes[offset + 3] = (byte) (value >> 24);
+		}
+
+	}
+
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+/**
+ * Write-only {@link org.springframework.http.converter.HttpMessageConverter} that
+ * streams {@link ResourceSupport} (and in particular {@link EndpointResource}) as XML
+ * through a StAX {@link XMLStreamWriter}, without building an intermediate tree. Links
+ * are written as {@code <link rel="..." href="..."/>} elements, map entries as elements
+ * named after their keys (or {@code <entry key="...">} if the key is not a legal element
+ * name), collections as repeated {@code <item>} elements and other objects via the
+ * properties that Jackson would serialize (so {@code @JsonIgnore},
+ * {@code @JsonProperty}, {@code @JsonValue}, {@code @JsonAnyGetter},
+ * {@code @JsonUnwrapped} and {@code @JsonInclude} are respected). Values that Jackson
+ * writes with a custom (non-bean) serializer, e.g. {@link java.net.URI} or
+ * {@link java.util.UUID}, are converted by Jackson and written as the resulting tree,
+ * and other JDK value types are written as text. Element names and property accessors
+ * are cached. Content nested more than 32 levels deep is rejected rather than
+ * truncated.
+ *
+ * @author Dave Syer
+ *
+ */
+public class EndpointResourceXmlHttpMessageConverter extends
+		AbstractHttpMessageConverter<ResourceSupport> {
+
+	private static final int MAX_DEPTH = 32;
+
+	private static final int MAX_CACHED_NAMES = 4096;
+
+	private final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+	private final Map<String, Boolean> names = new ConcurrentHashMap<String, Boolean>();
+
+	private final Map<Class<?>, Accessors> accessors = new ConcurrentHashMap<Class<?>, Accessors>();
+
+	private final ObjectMapper mapper;
+
+	public EndpointResourceXmlHttpMessageConverter() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Create a converter that discovers bean properties with the configuration (mix-ins,
+	 * naming strategy, visibility) of the given {@link ObjectMapper}.
+	 */
+	public EndpointResourceXmlHttpMessageConverter(ObjectMapper mapper) {
+		super(MediaType.APPLICATION_XML, MediaType.TEXT_XML, new MediaType("application",
+				"*+xml"));
+		this.mapper = mapper;
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ResourceSupport.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected ResourceSupport readInternal(Class<? extends ResourceSupport> clazz,
+			HttpInputMessage inputMessage) throws IOException {
+		throw new HttpMessageNotReadableException("Cannot read " + clazz
+				+ " (write-only converter)");
+	}
+
+	@Override
+	protected void writeInternal(ResourceSupport resource, HttpOutputMessage outputMessage)
+			throws IOException {
+		try {
+			XMLStreamWriter writer = this.factory.createXMLStreamWriter(
+					outputMessage.getBody(), "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeStartElement("resource");
+			for (Link link : resource.getLinks()) {
+				writer.writeEmptyElement("link");
+				writer.writeAttribute("rel", link.getRel());
+				writer.writeAttribute("href", link.getHref());
+			}
+			if (resource instanceof EndpointResource) {
+				EndpointResource endpoint = (EndpointResource) resource;
+				writeEntries(writer, endpoint.getEmbedded(), 1);
+				writeContent(writer, endpoint.getContent());
+			}
+			else if (resource instanceof Resource) {
+				writeContent(writer, ((Resource<?>) resource).getContent());
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+			writer.close();
+		}
+		catch (XMLStreamException ex) {
+			throw new HttpMessageNotWritableException("Could not write XML: "
+					+ ex.getMessage(), ex);
+		}
+	}
+
+	private void writeContent(XMLStreamWriter writer, Object content)
+			throws XMLStreamException {
+		if (content == null) {
+			return;
+		}
+		if (content instanceof Map) {
+			writeEntries(writer, (Map<?, ?>) content, 1);
+			return;
+		}
+		if (!isScalar(content) && !(content instanceof Collection)
+				&& !content.getClass().isArray()) {
+			Accessors accessors = getAccessors(content.getClass());
+			if (accessors.value != null) {
+				writeContent(writer, accessors.value.getValue(content));
+				return;
+			}
+			if (accessors.kind == Kind.BEAN) {
+				writeProperties(writer, content, accessors, NameTransformer.NOP, 1);
+				return;
+			}
+			if (accessors.kind == Kind.TREE) {
+				JsonNode node = toTree(content);
+				if (node.isObject()) {
+					writeFields(writer, node, 1);
+				}
+				else {
+					writeNode(writer, "content", node, 1);
+				}
+				return;
+			}
+		}
+		writeValue(writer, "content", content, 1);
+	}
+
+	private void writeEntries(XMLStreamWriter writer, Map<?, ?> map, int depth)
+			throws XMLStreamException {
+		if (map == null) {
+			return;
+		}
+		for (Entry<?, ?> entry : map.entrySet()) {
+			writeValue(writer, String.valueOf(entry.getKey()), entry.getValue(), depth);
+		}
+	}
+
+	private void writeValue(XMLStreamWriter writer, String name, Object value, int depth)
+			throws XMLStreamException {
+		if (value == null) {
+			return;
+		}
+		checkDepth(name, depth);
+		Accessors accessors = null;
+		if (!isScalar(value) && !(value instanceof Map)
+				&& !(value instanceof Collection) && !value.getClass().isArray()) {
+			accessors = getAccessors(value.getClass());
+			if (accessors.value != null) {
+				writeValue(writer, name, accessors.value.getValue(value), depth);
+				return;
+			}
+			if (accessors.kind == Kind.TREE) {
+				writeNode(writer, name, toTree(value), depth);
+				return;
+			}
+		}
+		startElement(writer, name);
+		if (accessors == null ? isScalar(value) : accessors.kind == Kind.TEXT) {
+			writer.writeCharacters(toText(value));
+		}
+		else if (value instanceof Map) {
+			writeEntries(writer, (Map<?, ?>) value, depth + 1);
+		}
+		else if (value instanceof Collection) {
+			for (Object item : (Collection<?>) value) {
+				writeValue(writer, "item", item, depth + 1);
+			}
+		}
+		else if (value.getClass().isArray()) {
+			for (Object item : ObjectUtils.toObjectArray(value)) {
+				writeValue(writer, "item", item, depth + 1);
+			}
+		}
+		else {
+			writeProperties(writer, value, accessors, NameTransformer.NOP, depth + 1);
+		}
+		writer.writeEndElement();
+	}
+
+	private void writeProperties(XMLStreamWriter writer, Object bean,
+			Accessors accessors, NameTransformer names, int depth)
+			throws XMLStreamException {
+		for (int i = 0; i < accessors.members.length; i++) {
+			Object value = accessors.members[i].getValue(bean);
+			if (!isIncluded(accessors.inclusions[i], value)) {
+				continue;
+			}
+			NameTransformer unwrapping = accessors.unwrapping[i];
+			if (unwrapping != null && value != null) {
+				Accessors nested = getAccessors(value.getClass());
+				if (nested.kind == Kind.BEAN && nested.value == null) {
+					checkDepth(accessors.names[i], depth);
+					writeProperties(writer, value, nested,
+							NameTransformer.chainedTransformer(names, unwrapping),
+							depth + 1);
+					continue;
+				}
+			}
+			writeValue(writer, names.transform(accessors.names[i]), value, depth);
+		}
+		if (accessors.any != null) {
+			writeEntries(writer, (Map<?, ?>) accessors.any.getValue(bean), depth);
+		}
+	}
+
+	private void writeFields(XMLStreamWriter writer, JsonNode node, int depth)
+			throws XMLStreamException {
+		Iterator<Entry<String, JsonNode>> fields = node.fields();
+		while (fields.hasNext()) {
+			Entry<String, JsonNode> field = fields.next();
+			writeNode(writer, field.getKey(), field.getValue(), depth);
+		}
+	}
+
+	private void writeNode(XMLStreamWriter writer, String name, JsonNode node, int depth)
+			throws XMLStreamException {
+		if (node == null || node.isNull() || node.isMissingNode()) {
+			return;
+		}
+		checkDepth(name, depth);
+		startElement(writer, name);
+		if (node.isObject()) {
+			writeFields(writer, node, depth + 1);
+		}
+		else if (node.isArray()) {
+			for (JsonNode item : node) {
+				writeNode(writer, "item", item, depth + 1);
+			}
+		}
+		else {
+			writer.writeCharacters(node.asText());
+		}
+		writer.writeEndElement();
+	}
+
+	private JsonNode toTree(Object value) {
+		try {
+			return this.mapper.valueToTree(value);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new HttpMessageNotWritableException("Could not write XML: "
+					+ ex.getMessage(), ex);
+		}
+	}
+
+	private void checkDepth(String name, int depth) {
+		if (depth > MAX_DEPTH) {
+			throw new HttpMessageNotWritableException("Could not write XML: element '"
+					+ name + "' is nested more than " + MAX_DEPTH + " levels deep");
+		}
+	}
+
+	private static boolean isIncluded(Include inclusion, Object value) {
+		if (value == null) {
+			return false;
+		}
+		if (inclusion == Include.NON_EMPTY || inclusion == Include.NON_DEFAULT) {
+			if (value instanceof CharSequence) {
+				return ((CharSequence) value).length() > 0;
+			}
+			if (value instanceof Collection) {
+				return !((Collection<?>) value).isEmpty();
+			}
+			if (value instanceof Map) {
+				return !((Map<?, ?>) value).isEmpty();
+			}
+			if (value.getClass().isArray()) {
+				return Array.getLength(value) > 0;
+			}
+		}
+		return true;
+	}
+
+	private Accessors getAccessors(Class<?> type) {
+		Accessors accessors = this.accessors.get(type);
+		if (accessors == null) {
+			SerializationConfig config = this.mapper.getSerializationConfig();
+			AnnotationIntrospector introspector = config.getAnnotationIntrospector();
+			BeanDescription description = config.introspect(config.constructType(type));
+			Include defaultInclusion = description.findSerializationInclusion(config
+					.getSerializationInclusion());
+			Kind kind = findKind(type);
+			List<AnnotatedMember> members = new ArrayList<AnnotatedMember>();
+			List<String> names = new ArrayList<String>();
+			List<Include> inclusions = new ArrayList<Include>();
+			List<NameTransformer> unwrapping = new ArrayList<NameTransformer>();
+			for (BeanPropertyDefinition property : description.findProperties()) {
+				AnnotatedMember accessor = property.getAccessor();
+				if (accessor != null) {
+					if (introspector.findSerializer(accessor) != null
+							|| introspector.findSerializationConverter(accessor) != null) {
+						// Only Jackson knows how to write this property
+						kind = Kind.TREE;
+					}
+					makeAccessible(accessor);
+					members.add(accessor);
+					names.add(property.getName());
+					inclusions.add(introspector.findSerializationInclusion(accessor,
+							defaultInclusion));
+					unwrapping.add(introspector.findUnwrappingNameTransformer(accessor));
+				}
+			}
+			AnnotatedMember any = description.findAnyGetter();
+			AnnotatedMember value = description.findJsonValueMethod();
+			accessors = new Accessors(kind, members.toArray(new AnnotatedMember[members
+					.size()]), names.toArray(new String[names.size()]),
+					inclusions.toArray(new Include[inclusions.size()]),
+					unwrapping.toArray(new NameTransformer[unwrapping.size()]),
+					makeAccessible(any), makeAccessible(value));
+			this.accessors.put(type, accessors);
+		}
+		return accessors;
+	}
+
+	private Kind findKind(Class<?> type) {
+		JsonSerializer<?> serializer;
+		try {
+			DefaultSerializerProvider provider = ((DefaultSerializerProvider) this.mapper
+					.getSerializerProvider()).createInstance(
+					this.mapper.getSerializationConfig(),
+					this.mapper.getSerializerFactory());
+			serializer = provider.findValueSerializer(type, null);
+		}
+		catch (JsonMappingException ex) {
+			throw new HttpMessageNotWritableException("Could not write XML: "
+					+ ex.getMessage(), ex);
+		}
+		if (!(serializer instanceof BeanSerializerBase)) {
+			return Kind.TREE;
+		}
+		// Value types from the JDK (e.g. java.time without the Jackson module) are not
+		// worth exploding into their getters
+		return type.getName().startsWith("java.") ? Kind.TEXT : Kind.BEAN;
+	}
+
+	private static AnnotatedMember makeAccessible(AnnotatedMember member) {
+		if (member != null) {
+			if (member.getMember() instanceof Method) {
+				ReflectionUtils.makeAccessible((Method) member.getMember());
+			}
+			else if (member.getMember() instanceof Field) {
+				ReflectionUtils.makeAccessible((Field) member.getMember());
+			}
+		}
+		return member;
+	}
+
+	private void startElement(XMLStreamWriter writer, String name)
+			throws XMLStreamException {
+		if (isElementName(name)) {
+			writer.writeStartElement(name);
+		}
+		else {
+			writer.writeStartElement("entry");
+			writer.writeAttribute("key", name);
+		}
+	}
+
+	private boolean isElementName(String name) {
+		Boolean valid = this.names.get(name);
+		if (valid == null) {
+			valid = checkElementName(name);
+			if (this.names.size() < MAX_CACHED_NAMES) {
+				this.names.put(name, valid);
+			}
+		}
+		return valid;
+	}
+
+	private static boolean checkElementName(String name) {
+		if (name.length() == 0 || name.regionMatches(true, 0, "xml", 0, 3)) {
+			return false;
+		}
+		char first = name.charAt(0);
+		if (!Character.isLetter(first) && first != '_') {
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * How a (non-scalar, non-container) value is written.
+	 */
+	private enum Kind {
+
+		/**
+		 * Property by property, as Jackson's bean serializer would.
+		 */
+		BEAN,
+
+		/**
+		 * As text, using {@link Object#toString()}.
+		 */
+		TEXT,
+
+		/**
+		 * Through Jackson (it has a custom serializer), converting the tree.
+		 */
+		TREE
+
+	}
+
+	/**
+	 * The serializable properties of one type, as Jackson sees them.
+	 */
+	private static class Accessors {
+
+		private final Kind kind;
+
+		private final AnnotatedMember[] members;
+
+		private final String[] names;
+
+		private final Include[] inclusions;
+
+		private final NameTransformer[] unwrapping;
+
+		private final AnnotatedMember any;
+
+		private final AnnotatedMember value;
+
+		Accessors(Kind kind, AnnotatedMember[] members, String[] names,
+				Include[] inclusions, NameTransformer[] unwrapping, AnnotatedMember any,
+				AnnotatedMember value) {
+			this.kind = kind;
+			this.members = members;
+			this.names = names;
+			this.inclusions = inclusions;
+			this.unwrapping = unwrapping;
+			this.any = any;
+			this.value = value;
+		}
+
+	}
+
+	private static boolean isScalar(Object value) {
+		return value instanceof CharSequence || value instanceof Number
+				|| value instanceof Boolean || value instanceof Character
+				|| value instanceof Date || value instanceof Class
+				|| value.getClass().isEnum();
+	}
+
+	private static String toText(Object value) {
+		if (value instanceof Date) {
+			return String.valueOf(((Date) value).getTime());
+		}
+		if (value instanceof Class) {
+			return ((Class<?>) value).getName();
+		}
+		if (value instanceof Enum) {
+			return ((Enum<?>) value).name();
+		}
+		return value.toString();
+	}
+
+}
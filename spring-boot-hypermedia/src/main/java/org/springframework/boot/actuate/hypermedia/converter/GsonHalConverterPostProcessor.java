@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * {@link BeanPostProcessor} that teaches every {@link GsonHttpMessageConverter} to write
+ * HAL using the {@link HalTypeAdapterFactory}. The existing {@link Gson} keeps handling
+ * all other types, so its configuration is preserved, and the replacement writes with
+ * the same null handling, HTML escaping and pretty printing as the original.
+ *
+ * @author Dave Syer
+ *
+ */
+public class GsonHalConverterPostProcessor implements BeanPostProcessor {
+
+	private static final String NON_EXECUTABLE_PREFIX = ")]}'\n";
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName)
+			throws BeansException {
+		if (bean instanceof GsonHttpMessageConverter) {
+			GsonHttpMessageConverter converter = (GsonHttpMessageConverter) bean;
+			converter.setGson(extend(converter.getGson()));
+		}
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName)
+			throws BeansException {
+		return bean;
+	}
+
+	static Gson extend(final Gson gson) {
+		GsonBuilder builder = new GsonBuilder();
+		copyWriterSettings(gson, builder);
+		// Factories registered last are consulted first
+		return builder.registerTypeAdapterFactory(new TypeAdapterFactory() {
+			@Override
+			public <T> TypeAdapter<T> create(Gson ignored, TypeToken<T> type) {
+				return gson.getAdapter(type);
+			}
+		}).registerTypeAdapterFactory(new HalTypeAdapterFactory()).create();
+	}
+
+	/**
+	 * Carry over the settings that {@link Gson} applies to its writer rather than to its
+	 * adapters (null handling, HTML escaping, pretty printing and the non-executable
+	 * prefix). Gson has no accessors for them, so they are read off a small probe
+	 * document written by the original instance.
+	 */
+	private static void copyWriterSettings(Gson gson, GsonBuilder builder) {
+		JsonObject probe = new JsonObject();
+		probe.add("a", JsonNull.INSTANCE);
+		probe.addProperty("b", "<");
+		String json = gson.toJson(probe);
+		if (json.startsWith(NON_EXECUTABLE_PREFIX)) {
+			builder.generateNonExecutableJson();
+			json = json.substring(NON_EXECUTABLE_PREFIX.length());
+		}
+		if (json.contains("\"a\"")) {
+			builder.serializeNulls();
+		}
+		if (json.contains("<")) {
+			builder.disableHtmlEscaping();
+		}
+		if (json.contains("\n")) {
+			builder.setPrettyPrinting();
+		}
+	}
+
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.boot.actuate.hypermedia.endpoints.LinkTable;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceSupport;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Gson {@link TypeAdapterFactory} that renders {@link Link}, {@link ResourceSupport},
+ * {@link Resource} and {@link EndpointResource} as HAL with hand-written, streaming
+ * adapters (links grouped by rel under "_links"). Resource content and endpoint data are
+ * written with whatever adapters Gson already has for them. A {@link LinkTable} already
+ * has its links grouped, so they are written without regrouping. Unknown subclasses of
+ * {@link ResourceSupport} fall back to Gson's reflective adapter for their own fields.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HalTypeAdapterFactory implements TypeAdapterFactory {
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> raw = type.getRawType();
+		if (Link.class.equals(raw)) {
+			return (TypeAdapter<T>) new LinkTypeAdapter();
+		}
+		if (ResourceSupport.class.isAssignableFrom(raw)) {
+			TypeAdapter<T> fallback = null;
+			if (!ResourceSupport.class.equals(raw)
+					&& !Resource.class.isAssignableFrom(raw)
+					&& !LinkTable.class.isAssignableFrom(raw)) {
+				fallback = gson.getDelegateAdapter(this, type);
+			}
+			return (TypeAdapter<T>) new ResourceTypeAdapter(gson,
+					(TypeAdapter<Object>) fallback);
+		}
+		return null;
+	}
+
+	private static void writeLinks(JsonWriter out, ResourceSupport resource)
+			throws IOException {
+		if (!resource.hasLinks()) {
+			return;
+		}
+		if (resource instanceof LinkTable) {
+			writeLinks(out, ((LinkTable) resource).getLinksByRel());
+			return;
+		}
+		Map<String, List<Link>> grouped = new LinkedHashMap<String, List<Link>>();
+		for (Link link : resource.getLinks()) {
+			List<Link> rel = grouped.get(link.getRel());
+			if (rel == null) {
+				rel = new ArrayList<Link>(1);
+				grouped.put(link.getRel(), rel);
+			}
+			rel.add(link);
+		}
+		writeLinks(out, grouped);
+	}
+
+	private static void writeLinks(JsonWriter out, Map<String, List<Link>> grouped)
+			throws IOException {
+		out.name("_links").beginObject();
+		for (Entry<String, List<Link>> entry : grouped.entrySet()) {
+			out.name(entry.getKey());
+			if (entry.getValue().size() == 1) {
+				writeLink(out, entry.getValue().get(0));
+			}
+			else {
+				out.beginArray();
+				for (Link link : entry.getValue()) {
+					writeLink(out, link);
+				}
+				out.endArray();
+			}
+		}
+		out.endObject();
+	}
+
+	private static void writeLink(JsonWriter out, Link link) throws IOException {
+		out.beginObject();
+		out.name("href").value(link.getHref());
+		if (link.isTemplated()) {
+			out.name("templated").value(true);
+		}
+		out.endObject();
+	}
+
+	private static List<Link> readLinks(JsonReader in) throws IOException {
+		List<Link> links = new ArrayList<Link>();
+		in.beginObject();
+		while (in.hasNext()) {
+			String rel = in.nextName();
+			if (in.peek() == JsonToken.BEGIN_ARRAY) {
+				in.beginArray();
+				while (in.hasNext()) {
+					links.add(readLink(in, rel));
+				}
+				in.endArray();
+			}
+			else {
+				links.add(readLink(in, rel));
+			}
+		}
+		in.endObject();
+		return links;
+	}
+
+	private static Link readLink(JsonReader in, String rel) throws IOException {
+		String href = null;
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if ("href".equals(name)) {
+				href = in.nextString();
+			}
+			else if ("rel".equals(name) && rel == null) {
+				rel = in.nextString();
+			}
+			else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return rel == null ? new Link(href) : new Link(href, rel);
+	}
+
+	private static class LinkTypeAdapter extends TypeAdapter<Link> {
+
+		@Override
+		public void write(JsonWriter out, Link value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("rel").value(value.getRel());
+			out.name("href").value(value.getHref());
+			if (value.isTemplated()) {
+				out.name("templated").value(true);
+			}
+			out.endObject();
+		}
+
+		@Override
+		public Link read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			return readLink(in, null);
+		}
+
+	}
+
+	private static class ResourceTypeAdapter extends TypeAdapter<ResourceSupport> {
+
+		private final Gson gson;
+
+		private final TypeAdapter<Object> fallback;
+
+		public ResourceTypeAdapter(Gson gson, TypeAdapter<Object> fallback) {
+			this.gson = gson;
+			this.fallback = fallback;
+		}
+
+		@Override
+		public void write(JsonWriter out, ResourceSupport value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			writeLinks(out, value);
+			if (value instanceof EndpointResource) {
+				EndpointResource resource = (EndpointResource) value;
+				if (resource.getEmbedded() != null) {
+					for (Entry<String, Object> entry : resource.getEmbedded().entrySet()) {
+						out.name(entry.getKey());
+						writeValue(out, entry.getValue());
+					}
+				}
+				writeContent(out, resource.getContent());
+			}
+			else if (value instanceof Resource) {
+				writeContent(out, ((Resource<?>) value).getContent());
+			}
+			else if (this.fallback != null) {
+				this.fallback.write(new InliningJsonWriter(out, "links"), value);
+			}
+			out.endObject();
+		}
+
+		@Override
+		public ResourceSupport read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			ResourceSupport resource = new ResourceSupport();
+			in.beginObject();
+			while (in.hasNext()) {
+				if ("_links".equals(in.nextName())) {
+					resource.add(readLinks(in));
+				}
+				else {
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return resource;
+		}
+
+		/**
+		 * Collections, arrays and scalars cannot be unwrapped so they are written as
+		 * "content". Other objects have their properties streamed inline next to the
+		 * links by their own adapter.
+		 */
+		private void writeContent(JsonWriter out, Object content) throws IOException {
+			if (content == null) {
+				return;
+			}
+			if (content instanceof Collection || content.getClass().isArray()
+					|| isScalar(content)) {
+				out.name("content");
+				writeValue(out, content);
+				return;
+			}
+			if (content instanceof Map) {
+				for (Entry<?, ?> entry : ((Map<?, ?>) content).entrySet()) {
+					out.name(String.valueOf(entry.getKey()));
+					writeValue(out, entry.getValue());
+				}
+				return;
+			}
+			writeValue(new InliningJsonWriter(out, null), content);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void writeValue(JsonWriter out, Object value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			TypeAdapter<Object> adapter = (TypeAdapter<Object>) this.gson
+					.getAdapter(value.getClass());
+			adapter.write(out, value);
+		}
+
+		private boolean isScalar(Object value) {
+			return value instanceof CharSequence || value instanceof Number
+					|| value instanceof Boolean || value instanceof Character
+					|| value.getClass().isEnum();
+		}
+
+	}
+
+	/**
+	 * {@link JsonWriter} that forwards the members of a single object into an object that
+	 * is already open on the target writer, instead of building an intermediate tree. A
+	 * value that turns out not to be an object is written as "content". The member with
+	 * the excluded name (if any) is dropped.
+	 */
+	private static class InliningJsonWriter extends JsonWriter {
+
+		private final JsonWriter target;
+
+		private final String excluded;
+
+		private int depth;
+
+		private int skipping = -1;
+
+		public InliningJsonWriter(JsonWriter target, String excluded) {
+			super(NullWriter.INSTANCE);
+			this.target = target;
+			this.excluded = excluded;
+			setSerializeNulls(target.getSerializeNulls());
+		}
+
+		@Override
+		public JsonWriter beginObject() throws IOException {
+			if (this.depth++ == 0) {
+				return this;
+			}
+			if (!isSkipping()) {
+				this.target.beginObject();
+			}
+			return this;
+		}
+
+		@Override
+		public JsonWriter endObject() throws IOException {
+			if (--this.depth == 0) {
+				return this;
+			}
+			if (!isSkipping()) {
+				this.target.endObject();
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter beginArray() throws IOException {
+			beginValue();
+			this.depth++;
+			if (!isSkipping()) {
+				this.target.beginArray();
+			}
+			return this;
+		}
+
+		@Override
+		public JsonWriter endArray() throws IOException {
+			this.depth--;
+			if (!isSkipping()) {
+				this.target.endArray();
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter name(String name) throws IOException {
+			if (!isSkipping()) {
+				if (this.depth == 1 && name.equals(this.excluded)) {
+					this.skipping = this.depth;
+				}
+				else {
+					this.target.name(name);
+				}
+			}
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(String value) throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.value(value);
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter nullValue() throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.nullValue();
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(boolean value) throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.value(value);
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(double value) throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.value(value);
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(long value) throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.value(value);
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(Number value) throws IOException {
+			beginValue();
+			if (!isSkipping()) {
+				this.target.value(value);
+			}
+			endValue();
+			return this;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			this.target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+
+		private boolean isSkipping() {
+			return this.skipping >= 0;
+		}
+
+		/**
+		 * A top-level value that is not an object has nothing to inline.
+		 */
+		private void beginValue() throws IOException {
+			if (this.depth == 0) {
+				this.target.name("content");
+			}
+		}
+
+		/**
+		 * A skipped member ends when the writer is back at the depth it started at.
+		 */
+		private void endValue() {
+			if (this.skipping == this.depth) {
+				this.skipping = -1;
+			}
+		}
+
+	}
+
+	private static class NullWriter extends Writer {
+
+		private static final NullWriter INSTANCE = new NullWriter();
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.converter;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} that writes and reads
+ * the binary Smile encoding of JSON ("application/x-jackson-smile"). The object mapper
+ * must have been created with a {@link SmileFactory}.
+ *
+ * @author Dave Syer
+ *
+ */
+public class SmileHttpMessageConverter extends EndpointBinaryHttpMessageConverter {
+
+	public static final MediaType APPLICATION_SMILE = new MediaType("application",
+			"x-jackson-smile");
+
+	public SmileHttpMessageConverter(ObjectMapper mapper) {
+		super(mapper, APPLICATION_SMILE);
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.List;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility for reading an Accept-Encoding request header. Quality values are respected, so
+ * a coding with "q=0" counts as refused, and an explicit "gzip" (or "x-gzip") wins over a
+ * "*" wildcard.
+ *
+ * @author Dave Syer
+ *
+ */
+public abstract class AcceptEncoding {
+
+	/**
+	 * Whether the given Accept-Encoding header values (may be null) allow gzip.
+	 */
+	public static boolean acceptsGzip(List<String> values) {
+		if (values == null) {
+			return false;
+		}
+		double gzip = -1;
+		double any = -1;
+		for (String value : values) {
+			for (String coding : StringUtils.commaDelimitedListToStringArray(value)) {
+				String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+				if (parts.length == 0) {
+					continue;
+				}
+				if ("gzip".equalsIgnoreCase(parts[0])
+						|| "x-gzip".equalsIgnoreCase(parts[0])) {
+					gzip = Math.max(gzip, getQuality(parts));
+				}
+				else if ("*".equals(parts[0])) {
+					any = Math.max(any, getQuality(parts));
+				}
+			}
+		}
+		return gzip >= 0 ? gzip > 0 : any > 0;
+	}
+
+	private static double getQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].replace(" ", "");
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+}
@@ -32,10 +32,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter
 @ConfigurationProperties("endpoints.docs")
 public class ActuatorDocsEndpoint extends WebMvcConfigurerAdapter implements MvcEndpoint {
 
+	private static final String LOCATION = "classpath:/META-INF/resources/spring-boot-actuator/docs/";
+
 	private String path = "/docs";
 
 	private boolean sensitive;
 
+	/**
+	 * Register the resource handler as a stub and only create it on first use.
+	 */
+	private boolean lazy;
+
 	private ManagementServerProperties management;
 
 
@@ -81,9 +88,32 @@ public class ActuatorDocsEndpoint extends WebMvcConfigurerAdapter implements Mvc
 
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		if (this.lazy) {
+			return;
+		}
 		registry.addResourceHandler(this.management.getContextPath() + this.path + "/**")
-		.addResourceLocations(
-				"classpath:/META-INF/resources/spring-boot-actuator/docs/");
+		.addResourceLocations(LOCATION);
+	}
+
+	/**
+	 * Register the resource handler as a stub that is only created on first use, if this
+	 * endpoint is lazy.
+	 * @param mapping the handler mapping to register with
+	 */
+	public void addResourceHandlers(LazyResourceHandlerMapping mapping) {
+		if (!this.lazy) {
+			return;
+		}
+		mapping.addResourceHandler(this.management.getContextPath() + this.path + "/**",
+				null, LOCATION);
+	}
+
+	public boolean isLazy() {
+		return this.lazy;
+	}
+
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
 	}
 
 	public void setPath(String path) {
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.client.AsyncClientHttpRequestFactories;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Endpoint that follows the links index of each of a list of peer instances and merges
+ * selected resources from all of them (by default "health", "metrics" and "info") into
+ * one HAL document, with an embedded section per instance. All the requests go out
+ * concurrently on an {@link AsyncRestTemplate} (with a request factory from
+ * {@link AsyncClientHttpRequestFactories}), and each instance gets the same time budget. Whatever an
+ * instance has not returned by then is reported as an error and its outstanding
+ * requests are cancelled.
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.cluster")
+public class ClusterMvcEndpoint implements MvcEndpoint {
+
+	private String path = "/cluster";
+
+	private boolean sensitive = true;
+
+	/**
+	 * URLs of the hypermedia roots (links indexes) of the peer instances.
+	 */
+	private List<String> peers = new ArrayList<String>();
+
+	/**
+	 * Rels to fetch from each peer.
+	 */
+	private List<String> rels = new ArrayList<String>(Arrays.asList("health",
+			"metrics", "info"));
+
+	/**
+	 * Time allowed for each peer to respond (milliseconds).
+	 */
+	private int timeout = 2000;
+
+	/**
+	 * Maximum number of pooled connections shared by all peers.
+	 */
+	private int maxConnections = 100;
+
+	private AsyncRestTemplate client;
+
+	private Object resources;
+
+	@PostConstruct
+	public void start() {
+		AsyncClientHttpRequestFactory factory = AsyncClientHttpRequestFactories.create(
+				"cluster-", this.maxConnections, this.rels.size() + 1, this.timeout);
+		this.resources = factory;
+		this.client = new AsyncRestTemplate(factory);
+	}
+
+	@PreDestroy
+	public void stop() throws Exception {
+		if (this.resources instanceof DisposableBean) {
+			((DisposableBean) this.resources).destroy();
+		}
+	}
+
+	@RequestMapping(method = RequestMethod.GET, produces = {
+			MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+	@ResponseBody
+	public ClusterResource cluster() throws InterruptedException {
+		List<Instance> instances = new ArrayList<Instance>();
+		for (String peer : this.peers) {
+			Instance instance = new Instance(peer);
+			instances.add(instance);
+			fetchLinks(instance);
+		}
+		long deadline = System.currentTimeMillis() + this.timeout;
+		List<InstanceResource> result = new ArrayList<InstanceResource>();
+		for (Instance instance : instances) {
+			long remaining = Math.max(0, deadline - System.currentTimeMillis());
+			boolean complete = instance.done.await(remaining, TimeUnit.MILLISECONDS);
+			if (!complete) {
+				// Nobody is waiting for the rest, so free the connections
+				instance.cancel();
+			}
+			result.add(instance.toResource(complete));
+		}
+		return new ClusterResource(result);
+	}
+
+	private void fetchLinks(final Instance instance) {
+		get(instance, instance.url).addCallback(
+				new ListenableFutureCallback<ResponseEntity<Map<String, Object>>>() {
+					@Override
+					public void onSuccess(ResponseEntity<Map<String, Object>> result) {
+						fetchRels(instance, getLinks(result.getBody()));
+					}
+
+					@Override
+					public void onFailure(Throwable ex) {
+						instance.error("links", ex);
+						instance.done.countDown();
+					}
+				});
+	}
+
+	private void fetchRels(final Instance instance, Map<String, String> links) {
+		Map<String, String> selected = new LinkedHashMap<String, String>();
+		for (String rel : this.rels) {
+			if (links.containsKey(rel)) {
+				selected.put(rel, links.get(rel));
+			}
+		}
+		if (selected.isEmpty()) {
+			instance.done.countDown();
+			return;
+		}
+		final AtomicInteger pending = new AtomicInteger(selected.size());
+		URI base = URI.create(instance.url);
+		for (final Map.Entry<String, String> link : selected.entrySet()) {
+			get(instance, base.resolve(link.getValue()).toString()).addCallback(
+					new ListenableFutureCallback<ResponseEntity<Map<String, Object>>>() {
+						@Override
+						public void onSuccess(ResponseEntity<Map<String, Object>> result) {
+							instance.embed(link.getKey(), result.getBody());
+							complete();
+						}
+
+						@Override
+						public void onFailure(Throwable ex) {
+							instance.error(link.getKey(), ex);
+							complete();
+						}
+
+						private void complete() {
+							if (pending.decrementAndGet() == 0) {
+								instance.done.countDown();
+							}
+						}
+					});
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private ListenableFuture<ResponseEntity<Map<String, Object>>> get(Instance instance,
+			String url) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Arrays.asList(MediaTypes.HAL_JSON,
+				MediaType.APPLICATION_JSON));
+		ListenableFuture<ResponseEntity<Map<String, Object>>> future;
+		try {
+			future = (ListenableFuture) this.client.exchange(url, HttpMethod.GET,
+					new HttpEntity<Void>(headers), Map.class);
+		}
+		catch (RuntimeException ex) {
+			// e.g. the executor is saturated: fail this request like any other
+			SettableListenableFuture<ResponseEntity<Map<String, Object>>> failed = new SettableListenableFuture<ResponseEntity<Map<String, Object>>>();
+			failed.setException(ex);
+			future = failed;
+		}
+		instance.track(future);
+		return future;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> getLinks(Map<String, Object> body) {
+		Map<String, String> links = new LinkedHashMap<String, String>();
+		Object value = body == null ? null : body.get("_links");
+		if (!(value instanceof Map)) {
+			return links;
+		}
+		for (Map.Entry<String, Object> entry : ((Map<String, Object>) value)
+				.entrySet()) {
+			if (entry.getValue() instanceof Map) {
+				Object href = ((Map<String, Object>) entry.getValue()).get("href");
+				if (href instanceof String) {
+					links.put(entry.getKey(), (String) href);
+				}
+			}
+		}
+		return links;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setSensitive(boolean sensitive) {
+		this.sensitive = sensitive;
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.sensitive;
+	}
+
+	public List<String> getPeers() {
+		return this.peers;
+	}
+
+	public void setPeers(List<String> peers) {
+		this.peers = peers;
+	}
+
+	public List<String> getRels() {
+		return this.rels;
+	}
+
+	public void setRels(List<String> rels) {
+		this.rels = rels;
+	}
+
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getMaxConnections() {
+		return this.maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return null;
+	}
+
+	/**
+	 * The state of the requests to a single peer. Filled in by the client callbacks.
+	 */
+	private static class Instance {
+
+		private final String url;
+
+		private final Map<String, Object> embedded = new LinkedHashMap<String, Object>();
+
+		private final Map<String, String> errors = new LinkedHashMap<String, String>();
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		private boolean cancelled;
+
+		public Instance(String url) {
+			this.url = url;
+		}
+
+		public void track(Future<?> future) {
+			boolean cancel;
+			synchronized (this) {
+				cancel = this.cancelled;
+				if (!cancel) {
+					this.futures.add(future);
+				}
+			}
+			if (cancel) {
+				future.cancel(true);
+			}
+		}
+
+		public void cancel() {
+			List<Future<?>> futures;
+			synchronized (this) {
+				this.cancelled = true;
+				futures = new ArrayList<Future<?>>(this.futures);
+				this.futures.clear();
+			}
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+
+		public synchronized void embed(String rel, Object content) {
+			this.embedded.put(rel, content);
+		}
+
+		public synchronized void error(String rel, Throwable ex) {
+			this.errors.put(rel, ex.getClass().getSimpleName() + ": " + ex.getMessage());
+		}
+
+		public synchronized InstanceResource toResource(boolean complete) {
+			Map<String, String> errors = new LinkedHashMap<String, String>(this.errors);
+			if (!complete) {
+				errors.put("timeout", "No complete response from peer in time");
+			}
+			return new InstanceResource(this.url, new LinkedHashMap<String, Object>(
+					this.embedded), errors);
+		}
+
+	}
+
+	/**
+	 * The merged document: one embedded resource per instance.
+	 */
+	public static class ClusterResource extends ResourceSupport {
+
+		private final Map<String, List<InstanceResource>> embedded;
+
+		public ClusterResource(List<InstanceResource> instances) {
+			this.embedded = Collections.singletonMap("instances", instances);
+		}
+
+		@JsonProperty("_embedded")
+		public Map<String, List<InstanceResource>> getEmbedded() {
+			return this.embedded;
+		}
+
+	}
+
+	/**
+	 * The resources fetched from one instance, embedded by rel, and the errors (if any)
+	 * keyed by the rel that failed.
+	 */
+	@JsonInclude(Include.NON_EMPTY)
+	public static class InstanceResource extends ResourceSupport {
+
+		private final Map<String, Object> embedded;
+
+		private final Map<String, String> errors;
+
+		public InstanceResource(String url, Map<String, Object> embedded,
+				Map<String, String> errors) {
+			this.embedded = embedded;
+			this.errors = errors;
+			add(new Link(url));
+		}
+
+		@JsonProperty("_embedded")
+		public Map<String, Object> getEmbedded() {
+			return this.embedded;
+		}
+
+		public Map<String, String> getErrors() {
+			return this.errors;
+		}
+
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded list of versions of a (sanitized) configuration report such as the one from
+ * "/env". Each version is the report flattened into sorted parallel arrays of keys and
+ * values, so comparing two versions is a single merge pass over the keys and a new
+ * version is only kept if the report actually changed.
+ *
+ * @author Dave Syer
+ *
+ */
+public class ConfigVersions {
+
+	private int capacity;
+
+	private final LinkedList<Version> versions = new LinkedList<Version>();
+
+	private int next = 1;
+
+	public ConfigVersions(int capacity) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * @param capacity the maximum number of versions to retain
+	 */
+	public synchronized void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		this.capacity = capacity;
+		while (this.versions.size() > capacity) {
+			this.versions.removeFirst();
+		}
+	}
+
+	public synchronized int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Record the current state of the report, if it differs from the latest version.
+	 * @param report the report (nested maps and collections)
+	 * @return the latest version after recording
+	 */
+	public synchronized Version record(Map<String, ?> report) {
+		TreeMap<String, String> flat = new TreeMap<String, String>();
+		flatten("", report, flat);
+		String[] keys = flat.keySet().toArray(new String[flat.size()]);
+		String[] values = flat.values().toArray(new String[flat.size()]);
+		Version latest = this.versions.isEmpty() ? null : this.versions.getLast();
+		if (latest != null && Arrays.equals(latest.keys, keys)
+				&& Arrays.equals(latest.values, values)) {
+			return latest;
+		}
+		Version version = new Version(this.next++, System.currentTimeMillis(), keys,
+				values);
+		this.versions.add(version);
+		if (this.versions.size() > this.capacity) {
+			this.versions.removeFirst();
+		}
+		return version;
+	}
+
+	/**
+	 * @return the retained versions, oldest first
+	 */
+	public synchronized List<Version> getVersions() {
+		return new ArrayList<Version>(this.versions);
+	}
+
+	/**
+	 * @param number the version number
+	 * @return the version, or null if it is not (or no longer) retained
+	 */
+	public synchronized Version getVersion(int number) {
+		for (Version version : this.versions) {
+			if (version.number == number) {
+				return version;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Compare two versions by merging their sorted keys.
+	 * @param from the earlier version
+	 * @param to the later version
+	 * @return the differences
+	 */
+	public static Diff diff(Version from, Version to) {
+		Diff diff = new Diff(from.number, to.number);
+		String[] oldKeys = from.keys;
+		String[] newKeys = to.keys;
+		int i = 0;
+		int j = 0;
+		while (i < oldKeys.length || j < newKeys.length) {
+			int compare = i >= oldKeys.length ? 1 : j >= newKeys.length ? -1
+					: oldKeys[i].compareTo(newKeys[j]);
+			if (compare < 0) {
+				diff.removed.put(oldKeys[i], from.values[i]);
+				i++;
+			}
+			else if (compare > 0) {
+				diff.added.put(newKeys[j], to.values[j]);
+				j++;
+			}
+			else {
+				if (!from.values[i].equals(to.values[j])) {
+					Map<String, String> change = new LinkedHashMap<String, String>();
+					change.put("from", from.values[i]);
+					change.put("to", to.values[j]);
+					diff.changed.put(oldKeys[i], change);
+				}
+				i++;
+				j++;
+			}
+		}
+		return diff;
+	}
+
+	private static void flatten(String prefix, Object value, Map<String, String> flat) {
+		if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				String key = String.valueOf(entry.getKey());
+				flatten(prefix.length() == 0 ? key : prefix + "." + key,
+						entry.getValue(), flat);
+			}
+		}
+		else if (value instanceof Collection) {
+			int index = 0;
+			for (Iterator<?> iterator = ((Collection<?>) value).iterator(); iterator
+					.hasNext(); index++) {
+				flatten(prefix + "[" + index + "]", iterator.next(), flat);
+			}
+		}
+		else if (value instanceof Object[]) {
+			Object[] array = (Object[]) value;
+			for (int index = 0; index < array.length; index++) {
+				flatten(prefix + "[" + index + "]", array[index], flat);
+			}
+		}
+		else {
+			flat.put(prefix, String.valueOf(value));
+		}
+	}
+
+	/**
+	 * One recorded version of the report.
+	 */
+	public static class Version {
+
+		private final int number;
+
+		private final long timestamp;
+
+		private final String[] keys;
+
+		private final String[] values;
+
+		Version(int number, long timestamp, String[] keys, String[] values) {
+			this.number = number;
+			this.timestamp = timestamp;
+			this.keys = keys;
+			this.values = values;
+		}
+
+		public int getNumber() {
+			return this.number;
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		/**
+		 * @return the flattened report, in key order
+		 */
+		public Map<String, String> getProperties() {
+			Map<String, String> properties = new LinkedHashMap<String, String>();
+			for (int i = 0; i < this.keys.length; i++) {
+				properties.put(this.keys[i], this.values[i]);
+			}
+			return properties;
+		}
+
+	}
+
+	/**
+	 * The keys added, removed and changed between two versions.
+	 */
+	public static class Diff {
+
+		private final int from;
+
+		private final int to;
+
+		private final Map<String, String> added = new LinkedHashMap<String, String>();
+
+		private final Map<String, String> removed = new LinkedHashMap<String, String>();
+
+		private final Map<String, Map<String, String>> changed = new LinkedHashMap<String, Map<String, String>>();
+
+		Diff(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		public int getFrom() {
+			return this.from;
+		}
+
+		public int getTo() {
+			return this.to;
+		}
+
+		public Map<String, String> getAdded() {
+			return this.added;
+		}
+
+		public Map<String, String> getRemoved() {
+			return this.removed;
+		}
+
+		public Map<String, Map<String, String>> getChanged() {
+			return this.changed;
+		}
+
+	}
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Endpoint that keeps {@link ConfigVersions versions} of a configuration report (the
+ * sanitized output of "/env" or "/configprops") and serves the differences between them.
+ * It shares the path of the endpoint it reports on: "?diffFrom={version}" on that path
+ * returns the keys added, removed and changed since the given version, and
+ * "/_versions" lists the retained versions (the underscore keeps it apart from a lookup
+ * of a property called "versions" at "/env/{name}"). A new version is recorded when the
+ * context the endpoint belongs to is refreshed, whenever the versions are read and the
+ * report has changed, and when {@link #record()} is called (e.g. after a configuration
+ * refresh).
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.config-versions")
+public class ConfigVersionsMvcEndpoint implements MvcEndpoint,
+		ApplicationListener<ContextRefreshedEvent>, ApplicationContextAware {
+
+	private static final String VERSIONS_PATH = "/_versions";
+
+	private final Endpoint<?> delegate;
+
+	private final ManagementServerProperties management;
+
+	private final HrefBuilder hrefs;
+
+	private final ConfigVersions versions;
+
+	private ApplicationContext context;
+
+	public ConfigVersionsMvcEndpoint(Endpoint<?> delegate,
+			ManagementServerProperties management, HrefBuilder hrefs) {
+		this.delegate = delegate;
+		this.management = management;
+		this.hrefs = hrefs;
+		this.versions = new ConfigVersions(10);
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		// Child contexts (e.g. a separate management context) also publish to us
+		if (event.getApplicationContext() == this.context) {
+			record();
+		}
+	}
+
+	/**
+	 * Record the current state of the report as a new version, if it has changed.
+	 * @return the latest version
+	 */
+	@SuppressWarnings("unchecked")
+	public ConfigVersions.Version record() {
+		Object report = this.delegate.invoke();
+		return this.versions.record(report instanceof Map ? (Map<String, ?>) report
+				: Collections.singletonMap("value", report));
+	}
+
+	@RequestMapping(value = { "", "/" }, method = RequestMethod.GET, params = "diffFrom")
+	@ResponseBody
+	public Object diff(@RequestParam int diffFrom) {
+		if (!this.delegate.isEnabled()) {
+			return getDisabledResponse();
+		}
+		ConfigVersions.Version latest = record();
+		ConfigVersions.Version from = getVersion(diffFrom);
+		Resource<ConfigVersions.Diff> resource = new Resource<ConfigVersions.Diff>(
+				ConfigVersions.diff(from, latest));
+		resource.add(new Link(href("?diffFrom=" + diffFrom)));
+		resource.add(new Link(href(VERSIONS_PATH + "/" + from.getNumber()), "from"));
+		resource.add(new Link(href(VERSIONS_PATH + "/" + latest.getNumber()), "to"));
+		return resource;
+	}
+
+	@RequestMapping(value = VERSIONS_PATH, method = RequestMethod.GET)
+	@ResponseBody
+	public Object versions() {
+		if (!this.delegate.isEnabled()) {
+			return getDisabledResponse();
+		}
+		record();
+		List<ConfigVersions.Version> versions = this.versions.getVersions();
+		List<ResourceSupport> summaries = new ArrayList<ResourceSupport>();
+		for (int i = versions.size() - 1; i >= 0; i--) {
+			ConfigVersions.Version version = versions.get(i);
+			VersionSummary summary = new VersionSummary(version.getNumber(),
+					version.getTimestamp());
+			summary.add(new Link(href(VERSIONS_PATH + "/" + version.getNumber())));
+			summary.add(new Link(href("?diffFrom=" + version.getNumber()), "diff"));
+			summaries.add(summary);
+		}
+		VersionsResource resource = new VersionsResource(summaries);
+		resource.add(new Link(href(VERSIONS_PATH)));
+		return resource;
+	}
+
+	@RequestMapping(value = VERSIONS_PATH + "/{number}", method = RequestMethod.GET)
+	@ResponseBody
+	public Object version(@PathVariable int number) {
+		if (!this.delegate.isEnabled()) {
+			return getDisabledResponse();
+		}
+		ConfigVersions.Version version = getVersion(number);
+		Resource<ConfigVersions.Version> resource = new Resource<ConfigVersions.Version>(
+				version);
+		resource.add(new Link(href(VERSIONS_PATH + "/" + number)));
+		resource.add(new Link(href(VERSIONS_PATH), "versions"));
+		resource.add(new Link(href("?diffFrom=" + number), "diff"));
+		ConfigVersions.Version previous = null;
+		ConfigVersions.Version next = null;
+		for (ConfigVersions.Version candidate : this.versions.getVersions()) {
+			if (candidate.getNumber() < number) {
+				previous = candidate;
+			}
+			else if (candidate.getNumber() > number && next == null) {
+				next = candidate;
+			}
+		}
+		if (previous != null) {
+			resource.add(new Link(href(VERSIONS_PATH + "/" + previous.getNumber()),
+					"prev"));
+		}
+		if (next != null) {
+			resource.add(new Link(href(VERSIONS_PATH + "/" + next.getNumber()),
+					"next"));
+		}
+		return resource;
+	}
+
+	private ResponseEntity<?> getDisabledResponse() {
+		return new ResponseEntity<Object>(Collections.singletonMap("message",
+				"This endpoint is disabled"), HttpStatus.NOT_FOUND);
+	}
+
+	private ConfigVersions.Version getVersion(int number) {
+		ConfigVersions.Version version = this.versions.getVersion(number);
+		if (version == null) {
+			throw new NoSuchVersionException(number);
+		}
+		return version;
+	}
+
+	private String href(String path) {
+		return this.hrefs.href(this.management.getContextPath() + getPath()) + path;
+	}
+
+	/**
+	 * Maximum number of versions to retain.
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.versions.getCapacity();
+	}
+
+	public void setCapacity(int capacity) {
+		this.versions.setCapacity(capacity);
+	}
+
+	@Override
+	public String getPath() {
+		return "/" + this.delegate.getId();
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.delegate.isSensitive();
+	}
+
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return null;
+	}
+
+	/**
+	 * The retained versions, newest first.
+	 */
+	public static class VersionsResource extends ResourceSupport {
+
+		private final Map<String, List<ResourceSupport>> embedded;
+
+		public VersionsResource(List<ResourceSupport> versions) {
+			this.embedded = Collections.singletonMap("versions", versions);
+		}
+
+		@JsonProperty("_embedded")
+		public Map<String, List<ResourceSupport>> getEmbedded() {
+			return this.embedded;
+		}
+
+	}
+
+	/**
+	 * A version without its properties.
+	 */
+	public static class VersionSummary extends ResourceSupport {
+
+		private final int number;
+
+		private final long timestamp;
+
+		public VersionSummary(int number, long timestamp) {
+			this.number = number;
+			this.timestamp = timestamp;
+		}
+
+		public int getNumber() {
+			return this.number;
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "No such version")
+	public static class NoSuchVersionException extends RuntimeException {
+
+		public NoSuchVersionException(int number) {
+			super("No such version: " + number);
+		}
+
+	}
+
+}
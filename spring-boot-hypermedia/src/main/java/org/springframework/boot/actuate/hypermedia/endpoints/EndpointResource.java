@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+import java.util.Map;
+
+import org.springframework.hateoas.Link;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+/**
+ * Wrapper for the result of an Actuator endpoint that adds a "self" link. Map results are
+ * flattened into the resource alongside the links, anything else is unwrapped into it
+ * (or rendered as "content" if it cannot be unwrapped, e.g. a collection). The links are
+ * held in a {@link LinkTable}.
+ *
+ * @author Dave Syer
+ *
+ */
+@JsonInclude(content = Include.NON_NULL)
+@JacksonXmlRootElement(localName = "resource")
+public class EndpointResource extends LinkTable {
+
+	private Object content;
+
+	private Map<String, Object> embedded;
+
+	public EndpointResource(Object content, String path) {
+		this(content, linkTo(Object.class).slash(path).withSelfRel());
+	}
+
+	@SuppressWarnings("unchecked")
+	public EndpointResource(Object content, Link self) {
+		this.content = content instanceof Map ? null : content;
+		this.embedded = (Map<String, Object>) (this.content == null ? content : null);
+		add(self);
+	}
+
+	@JsonUnwrapped
+	public Object getContent() {
+		return this.content;
+	}
+
+	@JsonAnyGetter
+	public Map<String, Object> getEmbedded() {
+		return this.embedded;
+	}
+
+}
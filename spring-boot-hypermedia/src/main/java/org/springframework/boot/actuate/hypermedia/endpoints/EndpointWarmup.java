@@ -0,0 +1,299 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.embedded.Ssl;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Warms up the management endpoints once the application is ready, so that the first
+ * external request does not pay for cold caches, unbuilt serializers and interpreted
+ * code. The links index is fetched from the management server (on its configured
+ * address and with https if SSL is enabled) and the links to a short list of cheap,
+ * side-effect free endpoints are followed, a configurable number of times, through the
+ * same server, converters and advice as an external request would be. The time taken is
+ * reported as the "hypermedia.warmup" gauge (if there is a {@link GaugeService}). The
+ * requests carry a header with a value known only to this process, so that they can be
+ * left out of the request trace and metrics (see
+ * {@link WarmupRequestFilterPostProcessor}).
+ *
+ * <p>
+ * Starts on the {@link ApplicationReadyEvent} of the root context, so it also works when
+ * the endpoints are in a management child context on a different port, and runs in a
+ * background thread so that it does not hold up the event. Requests that fail (e.g.
+ * sensitive endpoints without credentials, or a certificate the JVM does not trust) are
+ * ignored.
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.links.warmup")
+public class EndpointWarmup implements ApplicationContextAware {
+
+	private static final Log logger = LogFactory.getLog(EndpointWarmup.class);
+
+	private static final String WARMUP_HEADER = "X-Endpoint-Warmup";
+
+	private static final String WARMUP_TOKEN = UUID.randomUUID().toString();
+
+	/**
+	 * Enable the warm-up (off by default).
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Number of times the links index and each endpoint are rendered.
+	 */
+	private int iterations = 10;
+
+	/**
+	 * Rels of the endpoints that are warmed up (besides the links index). Endpoints that
+	 * are slow or have side effects (e.g. dump, heapdump, logfile) should not be added.
+	 */
+	private Set<String> include = new LinkedHashSet<String>(Arrays.asList("health",
+			"info", "metrics", "env", "configprops", "beans", "autoconfig", "mappings",
+			"trace"));
+
+	/**
+	 * Connect and read timeout for each request in milliseconds.
+	 */
+	private int timeout = 5000;
+
+	private final ServerProperties server;
+
+	private final ManagementServerProperties management;
+
+	private final LinksMvcEndpoint links;
+
+	private GaugeService gaugeService;
+
+	private ApplicationContext context;
+
+	private volatile long duration = -1;
+
+	public EndpointWarmup(ServerProperties server, ManagementServerProperties management,
+			LinksMvcEndpoint links) {
+		this.server = server;
+		this.management = management;
+		this.links = links;
+	}
+
+	public void setGaugeService(GaugeService gaugeService) {
+		this.gaugeService = gaugeService;
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext context) throws BeansException {
+		this.context = context;
+	}
+
+	@PostConstruct
+	public void register() {
+		ApplicationContext root = this.context;
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		if (root instanceof ConfigurableApplicationContext) {
+			((ConfigurableApplicationContext) root)
+					.addApplicationListener(new ApplicationListener<ApplicationReadyEvent>() {
+						@Override
+						public void onApplicationEvent(ApplicationReadyEvent event) {
+							start(event.getApplicationContext().getEnvironment());
+						}
+					});
+		}
+	}
+
+	/**
+	 * @return the time taken by the last warm-up in milliseconds (or -1 if it has not
+	 * run)
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+
+	/**
+	 * @param request a request
+	 * @return true if the request was sent by the warm-up
+	 */
+	public static boolean isWarmupRequest(HttpServletRequest request) {
+		return WARMUP_TOKEN.equals(request.getHeader(WARMUP_HEADER));
+	}
+
+	private void start(final Environment environment) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				warmup(environment);
+			}
+		}, "hypermedia-warmup");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	void warmup(Environment environment) {
+		long start = System.nanoTime();
+		SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+		factory.setConnectTimeout(this.timeout);
+		factory.setReadTimeout(this.timeout);
+		RestTemplate rest = new RestTemplate(factory);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		headers.set(WARMUP_HEADER, WARMUP_TOKEN);
+		HttpEntity<Void> request = new HttpEntity<Void>(headers);
+		String index = getBaseUrl(environment) + this.links.getPath();
+		for (int i = 0; i < this.iterations; i++) {
+			Map<?, ?> body = get(rest, request, index);
+			for (String href : getHrefs(index, body)) {
+				get(rest, request, href);
+			}
+		}
+		this.duration = (System.nanoTime() - start) / 1000000;
+		if (this.gaugeService != null) {
+			this.gaugeService.submit("hypermedia.warmup", this.duration);
+		}
+		logger.info("Warmed up management endpoints in " + this.duration + "ms");
+	}
+
+	private String getBaseUrl(Environment environment) {
+		Integer port = environment.getProperty("local.management.port", Integer.class);
+		InetAddress address = this.management.getAddress();
+		String contextPath = "";
+		if (port == null) {
+			port = environment.getProperty("local.server.port", Integer.class,
+					this.server.getPort() == null ? 8080 : this.server.getPort());
+			address = this.server.getAddress();
+			if (this.server.getContextPath() != null) {
+				contextPath = this.server.getContextPath();
+			}
+		}
+		Ssl ssl = this.server.getSsl();
+		String scheme = ssl != null && ssl.isEnabled() ? "https" : "http";
+		return scheme + "://" + getHost(address) + ":" + port + contextPath
+				+ this.management.getContextPath();
+	}
+
+	private String getHost(InetAddress address) {
+		if (address == null || address.isAnyLocalAddress()) {
+			return "localhost";
+		}
+		String host = address.getHostAddress();
+		return address instanceof Inet6Address ? "[" + host + "]" : host;
+	}
+
+	private Map<?, ?> get(RestTemplate rest, HttpEntity<Void> request, String url) {
+		try {
+			return rest.exchange(url, HttpMethod.GET, request, Map.class).getBody();
+		}
+		catch (RestClientException e) {
+			logger.debug("Warm-up request failed: " + url, e);
+			return null;
+		}
+	}
+
+	private List<String> getHrefs(String index, Map<?, ?> body) {
+		List<String> hrefs = new ArrayList<String>();
+		if (body == null || !(body.get("_links") instanceof Map)) {
+			return hrefs;
+		}
+		URI base = URI.create(index);
+		for (Entry<?, ?> entry : ((Map<?, ?>) body.get("_links")).entrySet()) {
+			String rel = entry.getKey().toString();
+			rel = rel.substring(rel.indexOf(':') + 1);
+			if (!this.include.contains(rel)) {
+				continue;
+			}
+			Object value = entry.getValue();
+			for (Object link : value instanceof List ? (List<?>) value : Collections
+					.singletonList(value)) {
+				Object href = link instanceof Map ? ((Map<?, ?>) link).get("href") : null;
+				if (href != null && !href.toString().contains("{")) {
+					hrefs.add(base.resolve(href.toString()).toString());
+				}
+			}
+		}
+		return hrefs;
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getIterations() {
+		return this.iterations;
+	}
+
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	public Set<String> getInclude() {
+		return this.include;
+	}
+
+	public void setInclude(Set<String> include) {
+		this.include = include;
+	}
+
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(int timeout) {
+		this.timeout = timeout;
+	}
+
+}
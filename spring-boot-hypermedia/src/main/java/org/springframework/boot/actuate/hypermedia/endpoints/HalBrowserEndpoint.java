@@ -34,12 +34,20 @@ public class HalBrowserEndpoint extends WebMvcConfigurerAdapter implements MvcEn
 
 	private static final String HAL_BROWSER_VERSION = "b7669f1-1";
 
+	private static final String LOCATION = "classpath:/META-INF/resources/webjars/hal-browser/"
+			+ HAL_BROWSER_VERSION + "/";
+
 	private String path = "";
 
 	private ManagementServerProperties management;
 
 	private boolean sensitive;
 
+	/**
+	 * Register the resource handlers as stubs and only create them on first use.
+	 */
+	private boolean lazy;
+
 	public HalBrowserEndpoint(ManagementServerProperties management, String defaultPath) {
 		this.management = management;
 		path = defaultPath;
@@ -59,16 +67,38 @@ public class HalBrowserEndpoint extends WebMvcConfigurerAdapter implements MvcEn
 
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		if (this.lazy) {
+			return;
+		}
 		// Make sure the root path is not cached otherwise the browser won't come back for
 		// the JSON
 		registry.addResourceHandler(this.management.getContextPath() + this.path + "/")
-				.addResourceLocations(
-						"classpath:/META-INF/resources/webjars/hal-browser/"
-								+ HAL_BROWSER_VERSION + "/").setCachePeriod(0);
+				.addResourceLocations(LOCATION).setCachePeriod(0);
 		registry.addResourceHandler(this.management.getContextPath() + this.path + "/**")
-				.addResourceLocations(
-						"classpath:/META-INF/resources/webjars/hal-browser/"
-								+ HAL_BROWSER_VERSION + "/");
+				.addResourceLocations(LOCATION);
+	}
+
+	/**
+	 * Register the resource handlers as stubs that are only created on first use, if
+	 * this endpoint is lazy.
+	 * @param mapping the handler mapping to register with
+	 */
+	public void addResourceHandlers(LazyResourceHandlerMapping mapping) {
+		if (!this.lazy) {
+			return;
+		}
+		mapping.addResourceHandler(this.management.getContextPath() + this.path + "/",
+				0, LOCATION);
+		mapping.addResourceHandler(this.management.getContextPath() + this.path + "/**",
+				null, LOCATION);
+	}
+
+	public boolean isLazy() {
+		return this.lazy;
+	}
+
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
 	}
 
 	public void setPath(String path) {
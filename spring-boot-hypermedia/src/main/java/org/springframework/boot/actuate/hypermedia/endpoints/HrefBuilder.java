@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds the hrefs of endpoint links. By default ({@link Mode#ABSOLUTE}) each href is
+ * derived from the current request (including any X-Forwarded-* headers). In the other
+ * modes the href of a path is a constant string, so links can be computed once and
+ * reused.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HrefBuilder {
+
+	/**
+	 * How endpoint link hrefs are built.
+	 */
+	public static enum Mode {
+
+		/**
+		 * Absolute URIs built from the current request.
+		 */
+		ABSOLUTE,
+
+		/**
+		 * Paths relative to the host (servlet context path and mapping included).
+		 */
+		RELATIVE,
+
+		/**
+		 * Absolute URIs starting with a configured base URL.
+		 */
+		STATIC
+
+	}
+
+	private final Mode mode;
+
+	private final String baseUrl;
+
+	private volatile String relativeBase;
+
+	public HrefBuilder(Mode mode, String baseUrl) {
+		Assert.notNull(mode, "Mode must not be null");
+		Assert.isTrue(mode != Mode.STATIC || StringUtils.hasText(baseUrl),
+				"A base URL is required for static links");
+		this.mode = mode;
+		this.baseUrl = baseUrl == null ? null : StringUtils.trimTrailingCharacter(
+				baseUrl, '/');
+	}
+
+	/**
+	 * @return true if the href of a given path never changes
+	 */
+	public boolean isConstant() {
+		return this.mode != Mode.ABSOLUTE;
+	}
+
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Build the href for a path in the dispatcher servlet.
+	 * @param path the path (empty or starting with "/")
+	 * @return the href
+	 */
+	public String href(String path) {
+		switch (this.mode) {
+		case STATIC:
+			return this.baseUrl + path;
+		case RELATIVE:
+			String href = getRelativeBase() + path;
+			return href.length() == 0 ? "/" : href;
+		default:
+			return linkTo(Object.class).slash(path).toUri().toString();
+		}
+	}
+
+	/**
+	 * The href of the dispatcher servlet itself, without a trailing slash. In
+	 * {@link Mode#ABSOLUTE} mode it comes from the current request, so it identifies
+	 * the host, port and mappings the caller used.
+	 * @return the base href
+	 */
+	public String getBase() {
+		switch (this.mode) {
+		case STATIC:
+			return this.baseUrl;
+		case RELATIVE:
+			return getRelativeBase();
+		default:
+			return linkTo(Object.class).toUri().toString();
+		}
+	}
+
+	private String getRelativeBase() {
+		String base = this.relativeBase;
+		if (base == null) {
+			// The servlet context path and mapping do not change, so one request is
+			// enough to work them out
+			base = ServletUriComponentsBuilder.fromCurrentServletMapping().build()
+					.getPath();
+			base = base == null ? "" : StringUtils.trimTrailingCharacter(base, '/');
+			this.relativeBase = base;
+		}
+		return base;
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.hateoas.hal.DefaultCurieProvider;
+
+/**
+ * {@link DefaultCurieProvider} that renders each rel and each "curies" link once and then
+ * serves them from the {@link HypermediaMetadata}, alongside the endpoint links. The
+ * "curies" links are kept per base href (from the {@link HrefBuilder}), so in the
+ * default absolute mode there is one entry for each host and port the endpoints are
+ * reached on. If the href builder is constant the curie href comes from it instead of
+ * the current request.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HrefBuilderCurieProvider extends DefaultCurieProvider {
+
+	private static final int MAX_BASES = 16;
+
+	private static final int MAX_RELS = 1024;
+
+	private final String name;
+
+	private final String path;
+
+	private final HrefBuilder hrefs;
+
+	private final HypermediaMetadata metadata;
+
+	public HrefBuilderCurieProvider(String name, String path, HrefBuilder hrefs) {
+		this(name, path, hrefs, new HypermediaMetadata());
+	}
+
+	/**
+	 * @param name the curie name
+	 * @param path the curie template, relative to the dispatcher servlet if the hrefs are
+	 * constant, or as expected by {@link DefaultCurieProvider} otherwise
+	 * @param hrefs the href builder
+	 * @param metadata the metadata to cache the rendered rels and curies in
+	 */
+	public HrefBuilderCurieProvider(String name, String path, HrefBuilder hrefs,
+			HypermediaMetadata metadata) {
+		super(name, new UriTemplate(path));
+		this.name = name;
+		this.path = path;
+		this.hrefs = hrefs;
+		this.metadata = metadata;
+	}
+
+	@Override
+	public Collection<? extends Object> getCurieInformation(Links links) {
+		String key = this.hrefs.getBase() + " " + this.path;
+		Map<String, Collection<? extends Object>> cache = this.metadata.getCuries();
+		Collection<? extends Object> curies = cache.get(key);
+		if (curies == null) {
+			curies = this.hrefs.isConstant() ? Collections.singleton(new Curie(
+					this.name, this.hrefs.href(this.path))) : Collections
+					.unmodifiableCollection(super.getCurieInformation(links));
+			if (cache.size() < MAX_BASES) {
+				// The base comes from the request in absolute mode, so the cache is
+				// bounded in case of unexpected Host headers
+				cache.put(key, curies);
+			}
+		}
+		return curies;
+	}
+
+	@Override
+	public String getNamespacedRelFrom(Link link) {
+		return getNamespacedRelFor(link.getRel());
+	}
+
+	@Override
+	public String getNamespacedRelFor(String rel) {
+		Map<String, String> cache = this.metadata.getCuriedRels();
+		String curied = cache.get(rel);
+		if (curied == null) {
+			curied = super.getNamespacedRelFor(rel);
+			if (cache.size() < MAX_RELS) {
+				cache.put(rel, curied);
+			}
+		}
+		return curied;
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.util.StringUtils;
+
+/**
+ * Hypermedia metadata that does not change once the endpoints are known: the table of
+ * endpoint links (rel, path and sensitivity) and the curie-prefixed rels and curie
+ * links (if curies are enabled), so it is worked out once instead of per request. Only
+ * one context renders the endpoints (the main context, or the management child context
+ * if the management port is different, since that is where this module is configured),
+ * so there is one instance per application. The link tables are built on first use and
+ * kept per {@link MvcEndpoints} instance.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaMetadata {
+
+	private final Map<MvcEndpoints, List<EndpointLink>> endpointLinks = new ConcurrentHashMap<MvcEndpoints, List<EndpointLink>>();
+
+	private final Map<MvcEndpoints, List<EndpointLink>> publicLinks = new ConcurrentHashMap<MvcEndpoints, List<EndpointLink>>();
+
+	private final Map<String, String> curiedRels = new ConcurrentHashMap<String, String>();
+
+	private final Map<String, Collection<? extends Object>> curies = new ConcurrentHashMap<String, Collection<? extends Object>>();
+
+	/**
+	 * @param endpoints the endpoints
+	 * @return the links to all the endpoints (one per rel)
+	 */
+	public List<EndpointLink> getEndpointLinks(MvcEndpoints endpoints) {
+		List<EndpointLink> links = this.endpointLinks.get(endpoints);
+		if (links == null) {
+			links = new ArrayList<EndpointLink>();
+			Set<String> added = new HashSet<String>();
+			for (MvcEndpoint endpoint : endpoints.getEndpoints()) {
+				String path = endpoint.getPath();
+				String rel = path.startsWith("/") ? path.substring(1) : path;
+				if (StringUtils.hasText(rel) && added.add(rel)) {
+					links.add(new EndpointLink(rel, path, endpoint.isSensitive()));
+				}
+			}
+			links = Collections.unmodifiableList(links);
+			this.endpointLinks.put(endpoints, links);
+		}
+		return links;
+	}
+
+	/**
+	 * @param endpoints the endpoints
+	 * @return the links to the endpoints that are not sensitive
+	 */
+	public List<EndpointLink> getPublicLinks(MvcEndpoints endpoints) {
+		List<EndpointLink> links = this.publicLinks.get(endpoints);
+		if (links == null) {
+			links = new ArrayList<EndpointLink>();
+			for (EndpointLink link : getEndpointLinks(endpoints)) {
+				if (!link.isSensitive()) {
+					links.add(link);
+				}
+			}
+			links = Collections.unmodifiableList(links);
+			this.publicLinks.put(endpoints, links);
+		}
+		return links;
+	}
+
+	/**
+	 * @return the rels rewritten with a curie prefix (where one applies), by plain rel
+	 */
+	public Map<String, String> getCuriedRels() {
+		return this.curiedRels;
+	}
+
+	/**
+	 * @return the "curies" links rendered with HAL resources, by base href and curie
+	 * template
+	 */
+	public Map<String, Collection<? extends Object>> getCuries() {
+		return this.curies;
+	}
+
+	/**
+	 * A link to an endpoint, relative to the management context path.
+	 */
+	public static class EndpointLink {
+
+		private final String rel;
+
+		private final String path;
+
+		private final boolean sensitive;
+
+		public EndpointLink(String rel, String path, boolean sensitive) {
+			this.rel = rel;
+			this.path = path;
+			this.sensitive = sensitive;
+		}
+
+		public String getRel() {
+			return this.rel;
+		}
+
+		public String getPath() {
+			return this.path;
+		}
+
+		public boolean isSensitive() {
+			return this.sensitive;
+		}
+
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Handler mapping for static resources that are hardly ever used (the HAL browser, the
+ * docs). Only the URL patterns are registered at startup, with a stub handler for each.
+ * The resource handler behind a stub, and the lookup of its locations, is created the
+ * first time the stub handles a request. Ordered just ahead of the mapping from the
+ * resource handler registry (so that its catch-all "/**" pattern does not hide the
+ * stubs), but still after application handlers.
+ *
+ * @author Dave Syer
+ *
+ */
+public class LazyResourceHandlerMapping extends SimpleUrlHandlerMapping {
+
+	public LazyResourceHandlerMapping() {
+		setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+	}
+
+	/**
+	 * Register a stub for a resource handler.
+	 * @param pattern the URL pattern to map
+	 * @param cachePeriod the cache period in seconds (null for the default)
+	 * @param locations the resource locations
+	 */
+	public void addResourceHandler(String pattern, Integer cachePeriod,
+			String... locations) {
+		getUrlMap().put(pattern, new LazyResourceHandler(cachePeriod, locations));
+	}
+
+	private class LazyResourceHandler implements HttpRequestHandler {
+
+		private final Integer cachePeriod;
+
+		private final String[] locations;
+
+		private volatile ResourceHttpRequestHandler delegate;
+
+		public LazyResourceHandler(Integer cachePeriod, String[] locations) {
+			this.cachePeriod = cachePeriod;
+			this.locations = locations;
+		}
+
+		@Override
+		public void handleRequest(HttpServletRequest request,
+				HttpServletResponse response) throws ServletException, IOException {
+			getDelegate().handleRequest(request, response);
+		}
+
+		private ResourceHttpRequestHandler getDelegate() {
+			ResourceHttpRequestHandler delegate = this.delegate;
+			if (delegate == null) {
+				synchronized (this) {
+					delegate = this.delegate;
+					if (delegate == null) {
+						delegate = createDelegate();
+						this.delegate = delegate;
+					}
+				}
+			}
+			return delegate;
+		}
+
+		private ResourceHttpRequestHandler createDelegate() {
+			List<Resource> resources = new ArrayList<Resource>();
+			for (String location : this.locations) {
+				resources.add(getApplicationContext().getResource(location));
+			}
+			ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+			handler.setLocations(resources);
+			if (this.cachePeriod != null) {
+				handler.setCacheSeconds(this.cachePeriod);
+			}
+			handler.setApplicationContext(getApplicationContext());
+			try {
+				handler.afterPropertiesSet();
+			}
+			catch (Exception e) {
+				throw new IllegalStateException("Cannot create resource handler", e);
+			}
+			return handler;
+		}
+
+	}
+
+}
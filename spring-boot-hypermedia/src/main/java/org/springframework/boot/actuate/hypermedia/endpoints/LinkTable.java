@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * {@link ResourceSupport} that keeps its links grouped by rel in arrays instead of a
+ * single list. Each rel is interned once (for the life of the JVM) into a small integer
+ * that indexes straight into the groups, so {@link #hasLink(String)} and
+ * {@link #getLink(String)} do not scan the links. The links are handed out grouped by
+ * rel (in order of first appearance), which is the shape HAL renders, and
+ * {@link #getLinksByRel()} gives the grouping itself to writers that can use it. Rels
+ * that arrive after the intern table is full are still stored, but are looked up by
+ * comparing names.
+ *
+ * @author Dave Syer
+ *
+ */
+public class LinkTable extends ResourceSupport {
+
+	private static final int MAX_RELS = 1024;
+
+	private static final Map<String, Integer> RELS = new ConcurrentHashMap<String, Integer>();
+
+	private static final int[] NO_POSITIONS = new int[0];
+
+	private String[] rels = new String[4];
+
+	private Link[][] groups = new Link[4][];
+
+	private int[] sizes = new int[4];
+
+	private int[] positions = NO_POSITIONS;
+
+	private int count;
+
+	private int total;
+
+	private List<Link> links;
+
+	private Map<String, List<Link>> grouped;
+
+	@Override
+	public void add(Link link) {
+		Assert.notNull(link, "Link must not be null!");
+		int group = find(link.getRel(), true);
+		Link[] members = this.groups[group];
+		if (this.sizes[group] == members.length) {
+			members = Arrays.copyOf(members, members.length * 2);
+			this.groups[group] = members;
+		}
+		members[this.sizes[group]++] = link;
+		this.total++;
+		this.links = null;
+		this.grouped = null;
+	}
+
+	@Override
+	public boolean hasLinks() {
+		return this.total > 0;
+	}
+
+	@Override
+	public boolean hasLink(String rel) {
+		return find(rel, false) >= 0;
+	}
+
+	@Override
+	public Link getLink(String rel) {
+		int group = find(rel, false);
+		return group < 0 ? null : this.groups[group][0];
+	}
+
+	@Override
+	public List<Link> getLinks() {
+		if (this.links == null) {
+			List<Link> links = new ArrayList<Link>(this.total);
+			for (int group = 0; group < this.count; group++) {
+				for (int i = 0; i < this.sizes[group]; i++) {
+					links.add(this.groups[group][i]);
+				}
+			}
+			this.links = Collections.unmodifiableList(links);
+		}
+		return this.links;
+	}
+
+	/**
+	 * The links grouped by rel, in order of first appearance, as HAL renders them.
+	 * @return the grouped links (unmodifiable)
+	 */
+	@JsonIgnore
+	public Map<String, List<Link>> getLinksByRel() {
+		if (this.grouped == null) {
+			Map<String, List<Link>> grouped = new LinkedHashMap<String, List<Link>>();
+			for (int group = 0; group < this.count; group++) {
+				grouped.put(this.rels[group], Collections.unmodifiableList(Arrays
+						.asList(this.groups[group]).subList(0, this.sizes[group])));
+			}
+			this.grouped = Collections.unmodifiableMap(grouped);
+		}
+		return this.grouped;
+	}
+
+	@Override
+	public void removeLinks() {
+		for (int group = 0; group < this.count; group++) {
+			int id = index(this.rels[group], false);
+			if (id >= 0) {
+				this.positions[id] = 0;
+			}
+			this.rels[group] = null;
+			this.groups[group] = null;
+			this.sizes[group] = 0;
+		}
+		this.count = 0;
+		this.total = 0;
+		this.links = null;
+		this.grouped = null;
+	}
+
+	private int find(String rel, boolean create) {
+		int id = index(rel, create);
+		if (id >= 0 && id < this.positions.length && this.positions[id] > 0) {
+			return this.positions[id] - 1;
+		}
+		if (id < 0 && RELS.size() >= MAX_RELS) {
+			for (int group = 0; group < this.count; group++) {
+				if (this.rels[group].equals(rel)) {
+					return group;
+				}
+			}
+		}
+		return create ? newGroup(rel, id) : -1;
+	}
+
+	private int newGroup(String rel, int id) {
+		if (this.count == this.rels.length) {
+			int length = this.count * 2;
+			this.rels = Arrays.copyOf(this.rels, length);
+			this.groups = Arrays.copyOf(this.groups, length);
+			this.sizes = Arrays.copyOf(this.sizes, length);
+		}
+		int group = this.count++;
+		this.rels[group] = rel;
+		this.groups[group] = new Link[1];
+		if (id >= 0) {
+			if (id >= this.positions.length) {
+				this.positions = Arrays.copyOf(this.positions,
+						Math.max(id + 1, this.positions.length * 2));
+			}
+			this.positions[id] = group + 1;
+		}
+		return group;
+	}
+
+	private static int index(String rel, boolean create) {
+		Integer id = RELS.get(rel);
+		if (id == null && create) {
+			synchronized (RELS) {
+				id = RELS.get(rel);
+				if (id == null && RELS.size() < MAX_RELS) {
+					id = RELS.size();
+					RELS.put(rel, id);
+				}
+			}
+		}
+		return id == null ? -1 : id;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("links: %s", getLinks());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || !obj.getClass().equals(getClass())) {
+			return false;
+		}
+		return getLinks().equals(((LinkTable) obj).getLinks());
+	}
+
+	@Override
+	public int hashCode() {
+		return getLinks().hashCode();
+	}
+
+}
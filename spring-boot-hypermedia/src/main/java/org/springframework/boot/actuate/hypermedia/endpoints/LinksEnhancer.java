@@ -16,15 +16,30 @@
 
 package org.springframework.boot.actuate.hypermedia.endpoints;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
-import org.springframework.boot.actuate.hypermedia.autoconfigure.EndpointHypermediaAutoConfiguration;
+import org.springframework.boot.actuate.hypermedia.endpoints.HypermediaMetadata.EndpointLink;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.ResourceSupport;
-import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
+ * Adds links to all the {@link MvcEndpoint MvcEndpoints} to a resource. The rels and
+ * paths are worked out once (the endpoints do not change after startup) and kept in the
+ * {@link HypermediaMetadata}. The hrefs are built per request, unless the
+ * {@link HrefBuilder} makes them constant, in which case the links themselves are
+ * cached. If a role is set, links to sensitive endpoints are
+ * only added for callers in that role; the access decision is the only thing that
+ * varies between callers, so the link sets are cached separately for each outcome.
+ *
  * @author Dave Syer
  *
  */
@@ -34,31 +49,97 @@ public class LinksEnhancer {
 
 	private String rootPath;
 
+	private HrefBuilder hrefs;
+
+	private String role;
+
+	private final HypermediaMetadata metadata;
+
+	private final Map<String, List<Link>> cache = new ConcurrentHashMap<String, List<Link>>();
+
+	private final Map<String, List<Link>> publicCache = new ConcurrentHashMap<String, List<Link>>();
+
 	public LinksEnhancer(MvcEndpoints endpoints, String rootPath) {
+		this(endpoints, rootPath, new HrefBuilder(HrefBuilder.Mode.ABSOLUTE, null));
+	}
+
+	public LinksEnhancer(MvcEndpoints endpoints, String rootPath, HrefBuilder hrefs) {
+		this(endpoints, rootPath, hrefs, new HypermediaMetadata());
+	}
+
+	public LinksEnhancer(MvcEndpoints endpoints, String rootPath, HrefBuilder hrefs,
+			HypermediaMetadata metadata) {
 		this.endpoints = endpoints;
 		this.rootPath = rootPath;
+		this.hrefs = hrefs;
+		this.metadata = metadata;
+	}
+
+	/**
+	 * The role a caller needs to be in to see links to sensitive endpoints (default null,
+	 * meaning every caller sees every link).
+	 * @param role the role to set
+	 */
+	public void setRole(String role) {
+		this.role = role;
 	}
 
 	public void addEndpointLinks(ResourceSupport resource, String self) {
 		if (!resource.hasLink("self")) {
-			resource.add(linkTo(EndpointHypermediaAutoConfiguration.class).slash(
-					this.rootPath + self).withSelfRel());
+			resource.add(new Link(this.hrefs.href(this.rootPath + self)));
 		}
-		for (MvcEndpoint endpoint : this.endpoints.getEndpoints()) {
-			if (endpoint.getPath().equals(self)) {
-				continue;
-			}
-			Class<?> type = endpoint.getEndpointType();
-			if (type == null) {
-				type = Object.class;
-			}
-			String path = endpoint.getPath();
-			String rel = path.startsWith("/") ? path.substring(1) : path;
-			if (StringUtils.hasText(rel)) {
-				resource.add(linkTo(type).slash(this.rootPath + endpoint.getPath())
-						.withRel(rel));
+		resource.add(getEndpointLinks(self));
+	}
+
+	/**
+	 * Build the links (including "self") that {@link #addEndpointLinks} would add to an
+	 * empty resource.
+	 * @param self the path of the resource
+	 * @return the links
+	 */
+	public List<Link> getLinks(String self) {
+		LinkTable resource = new LinkTable();
+		addEndpointLinks(resource, self);
+		return resource.getLinks();
+	}
+
+	private List<Link> getEndpointLinks(String self) {
+		boolean authorized = isAuthorized();
+		if (!this.hrefs.isConstant()) {
+			return createEndpointLinks(self, authorized);
+		}
+		Map<String, List<Link>> cache = authorized ? this.cache : this.publicCache;
+		List<Link> links = cache.get(self);
+		if (links == null) {
+			links = Collections.unmodifiableList(createEndpointLinks(self, authorized));
+			cache.put(self, links);
+		}
+		return links;
+	}
+
+	private boolean isAuthorized() {
+		if (this.role == null) {
+			return true;
+		}
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return false;
+		}
+		return ((ServletRequestAttributes) attributes).getRequest().isUserInRole(
+				this.role);
+	}
+
+	private List<Link> createEndpointLinks(String self, boolean authorized) {
+		List<Link> links = new ArrayList<Link>();
+		for (EndpointLink link : authorized ? this.metadata
+				.getEndpointLinks(this.endpoints) : this.metadata
+				.getPublicLinks(this.endpoints)) {
+			if (!link.getPath().equals(self)) {
+				links.add(new Link(this.hrefs.href(this.rootPath + link.getPath()), link
+						.getRel()));
 			}
 		}
+		return links;
 	}
 
 }
@@ -16,12 +16,27 @@
 
 package org.springframework.boot.actuate.hypermedia.endpoints;
 
+import java.nio.charset.Charset;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.boot.actuate.endpoint.Endpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 /**
@@ -29,19 +44,116 @@ import org.springframework.web.bind.annotation.ResponseBody;
  *
  */
 @ConfigurationProperties("endpoints.links")
-public class LinksMvcEndpoint implements MvcEndpoint {
+public class LinksMvcEndpoint implements MvcEndpoint, BeanFactoryAware {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
 
 	private String path = "";
 
+	/**
+	 * How link hrefs are built: "absolute" (from the current request), "relative" (paths
+	 * only) or "static" (from the base-url).
+	 */
+	private HrefBuilder.Mode hrefMode = HrefBuilder.Mode.ABSOLUTE;
+
+	/**
+	 * Base URL of the dispatcher servlet for "static" links.
+	 */
+	private String baseUrl;
+
+	/**
+	 * Only link to sensitive endpoints for callers in the management role. Defaults to
+	 * true when management security is enabled and Spring Security is present.
+	 */
+	private Boolean filterSensitive;
+
+	/**
+	 * How long (in seconds) clients may cache the links index for if the hrefs do not
+	 * depend on the request ("relative" or "static" href mode). An ETag is always sent.
+	 */
+	private long maxAge = 60;
+
+	private BeanFactory beanFactory;
+
+	private LinksEnhancer linksEnhancer;
+
 	public LinksMvcEndpoint(String defaultPath) {
 		path = defaultPath;
 	}
 
-	@RequestMapping(value = { "/", "" }, produces=MediaType.APPLICATION_JSON_VALUE)
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	@RequestMapping(value = { "/", "" }, method = RequestMethod.GET, produces = {
+			MediaType.APPLICATION_JSON_VALUE, "application/x-jackson-smile",
+			"application/cbor" })
 	@ResponseBody
 	public ResourceSupport links() {
-		ResourceSupport resource = new ResourceSupport();
-		return resource;
+		return new LinkTable();
+	}
+
+	/**
+	 * Discovery without a body: the links are sent only as HTTP Link headers. Only HEAD
+	 * is mapped: OPTIONS requests are answered by the servlet itself unless
+	 * "spring.mvc.dispatch-options-request" is set, and turning that on for the whole
+	 * application just for this is not worth it.
+	 * @param requestHeaders the request headers (for If-None-Match)
+	 * @return an empty response with the Link headers
+	 */
+	@RequestMapping(value = { "/", "" }, method = RequestMethod.HEAD)
+	public ResponseEntity<Void> headers(@RequestHeader HttpHeaders requestHeaders) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAllow(EnumSet.of(HttpMethod.GET, HttpMethod.HEAD));
+		List<Link> links = getLinksEnhancer().getLinks(this.path);
+		addLinkHeaders(headers, links);
+		boolean notModified = addCacheHeaders(headers, links,
+				requestHeaders.getIfNoneMatch());
+		return new ResponseEntity<Void>(headers, notModified ? HttpStatus.NOT_MODIFIED
+				: HttpStatus.OK);
+	}
+
+	/**
+	 * Add the validators for the links index (an ETag, and a Cache-Control max age if the
+	 * hrefs do not depend on the request) to the response.
+	 * @param headers the response headers to add to
+	 * @param links the links in the index
+	 * @param ifNoneMatch the entity tags the client already has
+	 * @return true if the client already has these links
+	 */
+	public boolean addCacheHeaders(HttpHeaders headers, List<Link> links,
+			List<String> ifNoneMatch) {
+		String etag = "\"" + DigestUtils.md5DigestAsHex(links.toString().getBytes(UTF_8))
+				+ "\"";
+		headers.setETag(etag);
+		if (this.hrefMode != HrefBuilder.Mode.ABSOLUTE) {
+			headers.setCacheControl("private, max-age=" + this.maxAge);
+		}
+		for (String tag : ifNoneMatch) {
+			if ("*".equals(tag) || etag.equals(tag) || ("W/" + etag).equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add each link as an RFC 5988 Link header.
+	 * @param headers the headers to add to
+	 * @param links the links
+	 */
+	public static void addLinkHeaders(HttpHeaders headers, Iterable<Link> links) {
+		for (Link link : links) {
+			headers.add("Link", link.toString());
+		}
+	}
+
+	private LinksEnhancer getLinksEnhancer() {
+		if (this.linksEnhancer == null) {
+			this.linksEnhancer = this.beanFactory.getBean(LinksEnhancer.class);
+		}
+		return this.linksEnhancer;
 	}
 
 	public void setPath(String path) {
@@ -53,6 +165,38 @@ public class LinksMvcEndpoint implements MvcEndpoint {
 		return this.path;
 	}
 
+	public HrefBuilder.Mode getHrefMode() {
+		return this.hrefMode;
+	}
+
+	public void setHrefMode(HrefBuilder.Mode hrefMode) {
+		this.hrefMode = hrefMode;
+	}
+
+	public String getBaseUrl() {
+		return this.baseUrl;
+	}
+
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	public long getMaxAge() {
+		return this.maxAge;
+	}
+
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	public Boolean getFilterSensitive() {
+		return this.filterSensitive;
+	}
+
+	public void setFilterSensitive(Boolean filterSensitive) {
+		this.filterSensitive = filterSensitive;
+	}
+
 	@Override
 	public boolean isSensitive() {
 		return false;
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-size, column-wise history of sampled metric values. All storage is allocated up
+ * front: one ring of sample timestamps shared by every metric, and one block of values
+ * per metric slot in a single {@code double[]}. A metric that is missing from a sample
+ * is recorded as {@link Double#NaN} and skipped when reading. Once a slot is assigned to
+ * a metric name recording does not allocate; names that arrive after all slots are taken
+ * are ignored.
+ *
+ * @author Dave Syer
+ *
+ */
+public class MetricHistory {
+
+	private final int capacity;
+
+	private final int maxMetrics;
+
+	private final long[] timestamps;
+
+	private final double[] values;
+
+	private final Map<String, Integer> slots;
+
+	private int head = -1;
+
+	private int size;
+
+	public MetricHistory(int capacity, int maxMetrics) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		Assert.isTrue(maxMetrics > 0, "Maximum number of metrics must be positive");
+		this.capacity = capacity;
+		this.maxMetrics = maxMetrics;
+		this.timestamps = new long[capacity];
+		this.values = new double[capacity * maxMetrics];
+		this.slots = new HashMap<String, Integer>(maxMetrics * 2);
+		Arrays.fill(this.values, Double.NaN);
+	}
+
+	/**
+	 * Start a new sample at the given time. Subsequent calls to
+	 * {@link #record(String, double)} write into this sample until the next call.
+	 * @param timestamp the sample time (milliseconds since the epoch)
+	 */
+	public synchronized void begin(long timestamp) {
+		this.head = (this.head + 1) % this.capacity;
+		this.timestamps[this.head] = timestamp;
+		for (int slot = 0; slot < this.maxMetrics; slot++) {
+			this.values[slot * this.capacity + this.head] = Double.NaN;
+		}
+		if (this.size < this.capacity) {
+			this.size++;
+		}
+	}
+
+	/**
+	 * Record a value for the named metric in the current sample.
+	 * @param name the metric name
+	 * @param value the value
+	 */
+	public synchronized void record(String name, double value) {
+		if (this.head < 0) {
+			return;
+		}
+		Integer slot = this.slots.get(name);
+		if (slot == null) {
+			if (this.slots.size() >= this.maxMetrics) {
+				return;
+			}
+			slot = this.slots.size();
+			this.slots.put(name, slot);
+		}
+		this.values[slot * this.capacity + this.head] = value;
+	}
+
+	public synchronized boolean contains(String name) {
+		return this.slots.containsKey(name);
+	}
+
+	/**
+	 * Copy the recorded values of a metric with timestamps in the given (inclusive)
+	 * range, oldest first.
+	 * @param name the metric name
+	 * @param from the earliest timestamp
+	 * @param to the latest timestamp
+	 * @return the values in range, or null if the metric has never been recorded
+	 */
+	public synchronized Series getSeries(String name, long from, long to) {
+		Integer slot = this.slots.get(name);
+		if (slot == null) {
+			return null;
+		}
+		int base = slot * this.capacity;
+		int start = (this.head - this.size + 1 + this.capacity) % this.capacity;
+		int count = 0;
+		for (int i = 0; i < this.size; i++) {
+			int index = (start + i) % this.capacity;
+			if (inRange(index, base, from, to)) {
+				count++;
+			}
+		}
+		long[] times = new long[count];
+		double[] data = new double[count];
+		count = 0;
+		for (int i = 0; i < this.size; i++) {
+			int index = (start + i) % this.capacity;
+			if (inRange(index, base, from, to)) {
+				times[count] = this.timestamps[index];
+				data[count] = this.values[base + index];
+				count++;
+			}
+		}
+		return new Series(name, times, data);
+	}
+
+	/**
+	 * @return the timestamp of the oldest retained sample (or -1 if there is none)
+	 */
+	public synchronized long getOldest() {
+		if (this.size == 0) {
+			return -1;
+		}
+		return this.timestamps[(this.head - this.size + 1 + this.capacity)
+				% this.capacity];
+	}
+
+	/**
+	 * @return the timestamp of the most recent sample (or -1 if there is none)
+	 */
+	public synchronized long getNewest() {
+		return this.size == 0 ? -1 : this.timestamps[this.head];
+	}
+
+	private boolean inRange(int index, int base, long from, long to) {
+		long timestamp = this.timestamps[index];
+		return timestamp >= from && timestamp <= to
+				&& !Double.isNaN(this.values[base + index]);
+	}
+
+	/**
+	 * A contiguous range of recorded values for a single metric.
+	 */
+	public static class Series {
+
+		private final String name;
+
+		private final long[] timestamps;
+
+		private final double[] values;
+
+		public Series(String name, long[] timestamps, double[] values) {
+			this.name = name;
+			this.timestamps = timestamps;
+			this.values = values;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public long[] getTimestamps() {
+			return this.timestamps;
+		}
+
+		public double[] getValues() {
+			return this.values;
+		}
+
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Endpoint that samples the {@link MetricsEndpoint} on a fixed schedule into a
+ * {@link MetricHistory} and serves ranges of it as "/metrics/{name}/history". Links are
+ * built with the shared {@link HrefBuilder}, so they follow the configured href mode.
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.metrics.history")
+public class MetricHistoryMvcEndpoint implements MvcEndpoint {
+
+	private String path = "/metrics";
+
+	private boolean sensitive = true;
+
+	/**
+	 * Number of samples retained per metric.
+	 */
+	private int capacity = 360;
+
+	/**
+	 * Maximum number of distinct metrics tracked.
+	 */
+	private int maxMetrics = 200;
+
+	/**
+	 * Interval between samples in milliseconds.
+	 */
+	private long interval = 10000;
+
+	private final MetricsEndpoint metrics;
+
+	private final ManagementServerProperties management;
+
+	private final HrefBuilder hrefs;
+
+	private MetricHistory history;
+
+	private ScheduledExecutorService scheduler;
+
+	public MetricHistoryMvcEndpoint(MetricsEndpoint metrics,
+			ManagementServerProperties management, HrefBuilder hrefs) {
+		this.metrics = metrics;
+		this.management = management;
+		this.hrefs = hrefs;
+	}
+
+	@PostConstruct
+	public void start() {
+		this.history = new MetricHistory(this.capacity, this.maxMetrics);
+		CustomizableThreadFactory threads = new CustomizableThreadFactory(
+				"metric-history-");
+		threads.setDaemon(true);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, threads);
+		this.scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				sample();
+			}
+		}, 0, this.interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Take a single sample of all the current numeric metric values.
+	 */
+	public void sample() {
+		if (!this.metrics.isEnabled()) {
+			return;
+		}
+		Map<String, Object> values = this.metrics.invoke();
+		this.history.begin(System.currentTimeMillis());
+		for (Entry<String, Object> entry : values.entrySet()) {
+			if (entry.getValue() instanceof Number) {
+				this.history.record(entry.getKey(),
+						((Number) entry.getValue()).doubleValue());
+			}
+		}
+	}
+
+	@RequestMapping(value = "/{name}/history", method = RequestMethod.GET)
+	@ResponseBody
+	public Resource<MetricHistory.Series> history(@PathVariable String name,
+			@RequestParam(required = false) Long from,
+			@RequestParam(required = false) Long to) {
+		long start = from == null ? 0 : from;
+		long end = to == null ? Long.MAX_VALUE : to;
+		MetricHistory.Series series = this.history.getSeries(name, start, end);
+		if (series == null) {
+			throw new NoSuchMetricException(name);
+		}
+		String metric = this.management.getContextPath() + this.path + "/" + name;
+		Resource<MetricHistory.Series> resource = new Resource<MetricHistory.Series>(
+				series);
+		String history = this.hrefs.href(metric + "/history");
+		resource.add(new Link(history + range(from, to)));
+		resource.add(new Link(this.hrefs.href(metric), "metric"));
+		if (from != null && to != null && end > start) {
+			long width = end - start;
+			if (start > this.history.getOldest()) {
+				resource.add(new Link(history + range(start - width, start), "prev"));
+			}
+			if (end < this.history.getNewest()) {
+				resource.add(new Link(history + range(end, end + width), "next"));
+			}
+		}
+		return resource;
+	}
+
+	/**
+	 * Add a templated link to the history of each metric to the resource rendered for
+	 * the metrics endpoint.
+	 * @param resource the resource to enhance
+	 * @param path the path of the resource within the handler mapping
+	 */
+	public void addLinks(ResourceSupport resource, String path) {
+		if ((this.management.getContextPath() + this.path).equals(path)) {
+			String href = this.hrefs.href(path);
+			resource.add(new Link(href + "/{name}/history{?from,to}", "history"));
+		}
+	}
+
+	private String range(Long from, Long to) {
+		if (from == null && to == null) {
+			return "";
+		}
+		StringBuilder query = new StringBuilder("?");
+		if (from != null) {
+			query.append("from=").append(from);
+		}
+		if (to != null) {
+			query.append(from != null ? "&" : "").append("to=").append(to);
+		}
+		return query.toString();
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setSensitive(boolean sensitive) {
+		this.sensitive = sensitive;
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.sensitive;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getMaxMetrics() {
+		return this.maxMetrics;
+	}
+
+	public void setMaxMetrics(int maxMetrics) {
+		this.maxMetrics = maxMetrics;
+	}
+
+	public long getInterval() {
+		return this.interval;
+	}
+
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return null;
+	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "No such metric")
+	public static class NoSuchMetricException extends RuntimeException {
+
+		public NoSuchMetricException(String name) {
+			super("No history for metric: " + name);
+		}
+
+	}
+
+}
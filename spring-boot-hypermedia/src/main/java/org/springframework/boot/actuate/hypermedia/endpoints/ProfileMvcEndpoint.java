@@ -0,0 +1,288 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Endpoint that profiles the application by sampling the stacks of all its threads with
+ * the {@link ThreadMXBean} at a fixed rate for a bounded time, aggregating them in a
+ * {@link StackTrie}. The result is available as HAL JSON at "/profile" or as collapsed
+ * stacks (the input format for flame graphs) at "/profile/collapsed". Only one profile
+ * runs at a time, on the thread of the request that asked for it.
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.profile")
+public class ProfileMvcEndpoint implements MvcEndpoint {
+
+	private String path = "/profile";
+
+	private boolean sensitive = true;
+
+	/**
+	 * Default sampling interval in milliseconds.
+	 */
+	private long interval = 10;
+
+	/**
+	 * Default profiling duration in milliseconds.
+	 */
+	private long duration = 5000;
+
+	/**
+	 * Maximum profiling duration a request can ask for in milliseconds.
+	 */
+	private long maxDuration = 60000;
+
+	/**
+	 * Maximum number of frames sampled per stack.
+	 */
+	private int maxDepth = 256;
+
+	/**
+	 * Maximum number of nodes in the aggregated call tree.
+	 */
+	private int maxNodes = 100000;
+
+	private final ManagementServerProperties management;
+
+	private final HrefBuilder hrefs;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private final Lock lock = new ReentrantLock();
+
+	public ProfileMvcEndpoint(ManagementServerProperties management, HrefBuilder hrefs) {
+		this.management = management;
+		this.hrefs = hrefs;
+	}
+
+	@RequestMapping(method = RequestMethod.GET)
+	@ResponseBody
+	public ProfileResource profile(@RequestParam(required = false) Long duration,
+			@RequestParam(required = false) Long interval,
+			@RequestParam(required = false) Thread.State state)
+					throws InterruptedException {
+		long millis = duration(duration);
+		long period = interval == null ? this.interval : interval;
+		StackTrie trie = sample(millis, period, state);
+		ProfileResource resource = new ProfileResource(trie, millis, period);
+		String query = query(millis, period, state);
+		resource.add(new Link(href("") + query));
+		resource.add(new Link(href("/collapsed") + query, "collapsed"));
+		return resource;
+	}
+
+	@RequestMapping(value = "/collapsed", method = RequestMethod.GET, produces = MediaType.TEXT_PLAIN_VALUE)
+	@ResponseBody
+	public String collapsed(@RequestParam(required = false) Long duration,
+			@RequestParam(required = false) Long interval,
+			@RequestParam(required = false) Thread.State state)
+					throws InterruptedException {
+		return sample(duration(duration), interval == null ? this.interval : interval,
+				state).toCollapsed();
+	}
+
+	/**
+	 * Sample the stacks of all threads (except the calling one).
+	 * @param duration how long to sample for (milliseconds)
+	 * @param interval the time between samples (milliseconds)
+	 * @param state only sample threads in this state (or all threads if null)
+	 * @return the aggregated samples
+	 * @throws InterruptedException if interrupted while sampling
+	 */
+	public StackTrie sample(long duration, long interval, Thread.State state)
+			throws InterruptedException {
+		if (!this.lock.tryLock()) {
+			throw new ProfileInProgressException();
+		}
+		try {
+			StackTrie trie = new StackTrie(this.maxNodes);
+			long current = Thread.currentThread().getId();
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration);
+			do {
+				// The arrays come from the JVM; the trie does not allocate per sample
+				ThreadInfo[] infos = this.threads.getThreadInfo(
+						this.threads.getAllThreadIds(), this.maxDepth);
+				for (ThreadInfo info : infos) {
+					if (info != null && info.getThreadId() != current
+							&& (state == null || info.getThreadState() == state)) {
+						trie.add(info.getStackTrace());
+					}
+				}
+				Thread.sleep(Math.max(1, interval));
+			}
+			while (System.nanoTime() < end);
+			return trie;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private long duration(Long duration) {
+		return Math.min(duration == null ? this.duration : duration, this.maxDuration);
+	}
+
+	private String query(long duration, long interval, Thread.State state) {
+		return "?duration=" + duration + "&interval=" + interval
+				+ (state == null ? "" : "&state=" + state);
+	}
+
+	private String href(String path) {
+		return this.hrefs.href(this.management.getContextPath() + this.path + path);
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setSensitive(boolean sensitive) {
+		this.sensitive = sensitive;
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.sensitive;
+	}
+
+	public long getInterval() {
+		return this.interval;
+	}
+
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	public long getDuration() {
+		return this.duration;
+	}
+
+	public void setDuration(long duration) {
+		this.duration = duration;
+	}
+
+	public long getMaxDuration() {
+		return this.maxDuration;
+	}
+
+	public void setMaxDuration(long maxDuration) {
+		this.maxDuration = maxDuration;
+	}
+
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	public int getMaxNodes() {
+		return this.maxNodes;
+	}
+
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return null;
+	}
+
+	/**
+	 * The result of a profile: sample counts and the aggregated call tree.
+	 */
+	public static class ProfileResource extends ResourceSupport {
+
+		private final int samples;
+
+		private final int dropped;
+
+		private final long duration;
+
+		private final long interval;
+
+		private final StackTrie.Node tree;
+
+		public ProfileResource(StackTrie trie, long duration, long interval) {
+			this.samples = trie.getSamples();
+			this.dropped = trie.getDropped();
+			this.duration = duration;
+			this.interval = interval;
+			this.tree = trie.toTree();
+		}
+
+		public int getSamples() {
+			return this.samples;
+		}
+
+		public int getDropped() {
+			return this.dropped;
+		}
+
+		public long getDuration() {
+			return this.duration;
+		}
+
+		public long getInterval() {
+			return this.interval;
+		}
+
+		public StackTrie.Node getTree() {
+			return this.tree;
+		}
+
+	}
+
+	@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Profile already in progress")
+	public static class ProfileInProgressException extends RuntimeException {
+
+		public ProfileInProgressException() {
+			super("Profile already in progress");
+		}
+
+	}
+
+}
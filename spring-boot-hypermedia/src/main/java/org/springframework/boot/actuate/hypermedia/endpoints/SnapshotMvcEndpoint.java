@@ -0,0 +1,445 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Endpoint that periodically renders a set of other endpoints as HAL and keeps the
+ * gzipped results in a {@link SnapshotRing}. Because the ring is a file the snapshots
+ * survive a restart, and reading them back costs nothing from the endpoints themselves,
+ * which matters most when the application is in trouble. Snapshots are listed at
+ * "/snapshots" and served at "/snapshots/{run}/{endpoint}" (still compressed if the client
+ * accepts gzip).
+ *
+ * @author Dave Syer
+ *
+ */
+@ConfigurationProperties("endpoints.snapshots")
+public class SnapshotMvcEndpoint implements MvcEndpoint, EnvironmentAware {
+
+	private static final Log logger = LogFactory.getLog(SnapshotMvcEndpoint.class);
+
+	private String path = "/snapshots";
+
+	private boolean sensitive = true;
+
+	/**
+	 * Ids of the endpoints to snapshot.
+	 */
+	private List<String> endpoints = new ArrayList<String>();
+
+	/**
+	 * Interval between snapshots in milliseconds.
+	 */
+	private long interval = 60000;
+
+	/**
+	 * Location of the ring file. Defaults to a file in java.io.tmpdir named after the
+	 * application name and port, so that applications on the same host do not share
+	 * one.
+	 */
+	private String file;
+
+	/**
+	 * Number of slots in the ring (each holds one endpoint from one snapshot).
+	 */
+	private int slots = 64;
+
+	/**
+	 * Size of each slot in bytes. Compressed snapshots bigger than this are dropped.
+	 */
+	private int slotSize = 256 * 1024;
+
+	private final Map<String, Endpoint<?>> delegates = new LinkedHashMap<String, Endpoint<?>>();
+
+	private final ManagementServerProperties management;
+
+	private final ObjectMapper mapper;
+
+	private final HrefBuilder hrefs;
+
+	private MvcEndpoints mvcEndpoints;
+
+	private SnapshotRing ring;
+
+	private ScheduledExecutorService scheduler;
+
+	private long run;
+
+	private Environment environment;
+
+	public SnapshotMvcEndpoint(List<Endpoint<?>> delegates,
+			ManagementServerProperties management, ObjectMapper mapper,
+			HrefBuilder hrefs) {
+		for (Endpoint<?> endpoint : delegates) {
+			this.delegates.put(endpoint.getId(), endpoint);
+		}
+		this.management = management;
+		this.mapper = mapper;
+		this.hrefs = hrefs;
+		this.endpoints.add("metrics");
+		this.endpoints.add("trace");
+		this.endpoints.add("dump");
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (this.file == null) {
+			this.file = getDefaultFile().getPath();
+		}
+		this.ring = new SnapshotRing(new File(this.file), this.slots, this.slotSize);
+		this.run = this.ring.getLastRun() + 1;
+		CustomizableThreadFactory threads = new CustomizableThreadFactory("snapshots-");
+		threads.setDaemon(true);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, threads);
+		this.scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				snapshot();
+			}
+		}, this.interval, this.interval, TimeUnit.MILLISECONDS);
+	}
+
+	private File getDefaultFile() {
+		String name = "application";
+		Integer port = this.management.getPort();
+		if (this.environment != null) {
+			name = this.environment.getProperty("spring.application.name", name);
+			if (port == null) {
+				port = this.environment.getProperty("server.port", Integer.class);
+			}
+		}
+		if (port == null) {
+			port = 8080;
+		}
+		return new File(System.getProperty("java.io.tmpdir"), "actuator-snapshots-"
+				+ name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + port + ".ring");
+	}
+
+	@PreDestroy
+	public void stop() throws IOException {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+		}
+		if (this.ring != null) {
+			this.ring.close();
+		}
+	}
+
+	/**
+	 * Render all the configured endpoints into the ring as one snapshot run.
+	 */
+	public synchronized void snapshot() {
+		long run = this.run++;
+		long timestamp = System.currentTimeMillis();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+		for (String id : this.endpoints) {
+			Endpoint<?> endpoint = this.delegates.get(id);
+			if (endpoint == null || !endpoint.isEnabled()) {
+				continue;
+			}
+			buffer.reset();
+			try {
+				GZIPOutputStream gzip = new GZIPOutputStream(buffer);
+				this.mapper.writeValue(gzip, new EndpointResource(endpoint.invoke(),
+						new Link(selfHref(endpoint))));
+				gzip.finish();
+			}
+			catch (Exception ex) {
+				// Not worth stopping the other endpoints for
+				logger.warn("Could not snapshot endpoint '" + id + "': " + ex);
+				logger.debug("Snapshot of endpoint '" + id + "' failed", ex);
+				continue;
+			}
+			if (!this.ring.append(run, timestamp, id, buffer.toByteArray(),
+					buffer.size())) {
+				logger.warn("Snapshot of endpoint '" + id + "' is too big for a slot ("
+						+ buffer.size() + " > " + this.ring.getMaxLength()
+						+ " bytes), increase endpoints.snapshots.slot-size to keep it");
+			}
+		}
+	}
+
+	@RequestMapping(method = RequestMethod.GET, produces = { MediaTypes.HAL_JSON_VALUE,
+			MediaType.APPLICATION_JSON_VALUE })
+	@ResponseBody
+	public SnapshotsResource snapshots() {
+		Map<Long, SnapshotResource> runs = new LinkedHashMap<Long, SnapshotResource>();
+		for (SnapshotRing.Entry entry : this.ring.getEntries()) {
+			SnapshotResource resource = runs.get(entry.getRun());
+			if (resource == null) {
+				resource = new SnapshotResource(entry.getRun(), entry.getTimestamp());
+				resource.add(new Link(href("/" + entry.getRun())));
+				runs.put(entry.getRun(), resource);
+			}
+			resource.add(new Link(href("/" + entry.getRun() + "/" + entry.getName()),
+					entry.getName()));
+		}
+		SnapshotsResource resource = new SnapshotsResource(
+				new ArrayList<SnapshotResource>(runs.values()));
+		resource.add(new Link(href("")));
+		return resource;
+	}
+
+	@RequestMapping(value = "/{run}", method = RequestMethod.GET, produces = {
+			MediaTypes.HAL_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+	@ResponseBody
+	public SnapshotResource run(@PathVariable long run) {
+		SnapshotResource resource = null;
+		for (SnapshotRing.Entry entry : this.ring.getEntries()) {
+			if (entry.getRun() == run) {
+				if (resource == null) {
+					resource = new SnapshotResource(run, entry.getTimestamp());
+					resource.add(new Link(href("/" + run)));
+					resource.add(new Link(href(""), "snapshots"));
+				}
+				resource.add(new Link(href("/" + run + "/" + entry.getName()),
+						entry.getName()));
+			}
+		}
+		if (resource == null) {
+			throw new NoSuchSnapshotException(run);
+		}
+		return resource;
+	}
+
+	@RequestMapping(value = "/{run}/{endpoint}", method = RequestMethod.GET)
+	public void content(@PathVariable long run, @PathVariable String endpoint,
+			HttpServletRequest request, HttpServletResponse response)
+					throws IOException {
+		byte[] data = this.ring.read(run, endpoint);
+		if (data == null) {
+			throw new NoSuchSnapshotException(run);
+		}
+		response.setContentType(MediaTypes.HAL_JSON_VALUE);
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (AcceptEncoding.acceptsGzip(Collections.list(request
+				.getHeaders(HttpHeaders.ACCEPT_ENCODING)))) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			response.setContentLength(data.length);
+			response.getOutputStream().write(data);
+			return;
+		}
+		InputStream input = new GZIPInputStream(new ByteArrayInputStream(data));
+		try {
+			StreamUtils.copy(input, response.getOutputStream());
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	private String selfHref(Endpoint<?> endpoint) {
+		String path = "/" + endpoint.getId();
+		if (this.mvcEndpoints != null) {
+			for (MvcEndpoint candidate : this.mvcEndpoints.getEndpoints()) {
+				if (endpoint.getClass().equals(candidate.getEndpointType())) {
+					path = candidate.getPath();
+					break;
+				}
+			}
+		}
+		path = this.management.getContextPath() + path;
+		try {
+			return this.hrefs.href(path);
+		}
+		catch (IllegalStateException ex) {
+			// Snapshots run in the background, so there may be no request to take the
+			// host (or servlet mapping) from yet
+			return path;
+		}
+	}
+
+	private String href(String path) {
+		return this.hrefs.href(this.management.getContextPath() + this.path + path);
+	}
+
+	/**
+	 * The MVC endpoints, used to link each snapshot to the endpoint it was taken from.
+	 * @param mvcEndpoints the MVC endpoints
+	 */
+	public void setMvcEndpoints(MvcEndpoints mvcEndpoints) {
+		this.mvcEndpoints = mvcEndpoints;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setSensitive(boolean sensitive) {
+		this.sensitive = sensitive;
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.sensitive;
+	}
+
+	public List<String> getEndpoints() {
+		return this.endpoints;
+	}
+
+	public void setEndpoints(List<String> endpoints) {
+		this.endpoints = endpoints;
+	}
+
+	public long getInterval() {
+		return this.interval;
+	}
+
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	public String getFile() {
+		return this.file;
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public int getSlots() {
+		return this.slots;
+	}
+
+	public void setSlots(int slots) {
+		this.slots = slots;
+	}
+
+	public int getSlotSize() {
+		return this.slotSize;
+	}
+
+	public void setSlotSize(int slotSize) {
+		this.slotSize = slotSize;
+	}
+
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return null;
+	}
+
+	/**
+	 * The list of snapshot runs, newest first.
+	 */
+	public static class SnapshotsResource extends ResourceSupport {
+
+		private final Map<String, List<SnapshotResource>> embedded;
+
+		public SnapshotsResource(List<SnapshotResource> snapshots) {
+			this.embedded = new LinkedHashMap<String, List<SnapshotResource>>();
+			this.embedded.put("snapshots", snapshots);
+		}
+
+		@JsonProperty("_embedded")
+		public Map<String, List<SnapshotResource>> getEmbedded() {
+			return this.embedded;
+		}
+
+	}
+
+	/**
+	 * One snapshot run, with a link to each endpoint it captured.
+	 */
+	public static class SnapshotResource extends ResourceSupport {
+
+		private final long run;
+
+		private final long timestamp;
+
+		public SnapshotResource(long run, long timestamp) {
+			this.run = run;
+			this.timestamp = timestamp;
+		}
+
+		public long getRun() {
+			return this.run;
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "No such snapshot")
+	public static class NoSuchSnapshotException extends RuntimeException {
+
+		public NoSuchSnapshotException(long run) {
+			super("No snapshot: " + run);
+		}
+
+	}
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-size ring of compressed endpoint snapshots in a memory-mapped file. The file is
+ * a short header followed by a fixed number of equal slots. Each slot holds one rendered
+ * endpoint from one snapshot run, so the oldest slot is simply overwritten when the ring
+ * is full. A slot is only valid once its magic number is written, which happens last, and
+ * its checksum matches, so a write torn by a crash leaves a slot that is ignored when the
+ * file is opened again.
+ *
+ * @author Dave Syer
+ *
+ */
+public class SnapshotRing implements Closeable {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int FILE_MAGIC = 0x53524E47;
+
+	private static final int SLOT_MAGIC = 0x534E4150;
+
+	private static final int VERSION = 1;
+
+	private static final int FILE_HEADER = 64;
+
+	private static final int SLOT_HEADER = 128;
+
+	private static final int MAX_NAME = SLOT_HEADER - 38;
+
+	private final int slots;
+
+	private final int slotSize;
+
+	private final FileChannel file;
+
+	private final MappedByteBuffer buffer;
+
+	private final Entry[] entries;
+
+	private long nextSequence;
+
+	private long lastRun = -1;
+
+	/**
+	 * Open the ring in the given file, keeping any valid snapshots already in it if it
+	 * has the same layout, or starting a new one if it has not.
+	 * @param file the file
+	 * @param slots the number of slots
+	 * @param slotSize the size of each slot in bytes (including a 128 byte header)
+	 * @throws IOException if the file cannot be mapped or is not safe to use
+	 */
+	public SnapshotRing(File file, int slots, int slotSize) throws IOException {
+		Assert.isTrue(slots > 0, "Number of slots must be positive");
+		Assert.isTrue(slotSize > SLOT_HEADER, "Slot size must be more than "
+				+ SLOT_HEADER);
+		this.slots = slots;
+		this.slotSize = slotSize;
+		this.entries = new Entry[slots];
+		long length = FILE_HEADER + (long) slots * slotSize;
+		Assert.isTrue(length <= Integer.MAX_VALUE, "Ring file cannot be more than 2GB");
+		this.file = open(file.toPath());
+		boolean compatible = this.file.size() == length && readHeader();
+		if (this.file.size() > length) {
+			this.file.truncate(length);
+		}
+		// Mapping past the end of the file extends it
+		this.buffer = this.file.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		if (compatible) {
+			scan();
+		}
+		else {
+			for (int slot = 0; slot < slots; slot++) {
+				this.buffer.putInt(offset(slot), 0);
+			}
+			this.buffer.putInt(0, FILE_MAGIC);
+			this.buffer.putInt(4, VERSION);
+			this.buffer.putInt(8, slots);
+			this.buffer.putInt(12, slotSize);
+		}
+	}
+
+	/**
+	 * @return the largest payload a slot can hold
+	 */
+	public int getMaxLength() {
+		return this.slotSize - SLOT_HEADER;
+	}
+
+	/**
+	 * @return the highest run number in the ring (or -1 if it is empty)
+	 */
+	public synchronized long getLastRun() {
+		return this.lastRun;
+	}
+
+	/**
+	 * Write a snapshot into the oldest slot.
+	 * @param run the run number the snapshot belongs to
+	 * @param timestamp the time of the run
+	 * @param name the name of the endpoint
+	 * @param data a buffer with the compressed snapshot
+	 * @param length the number of bytes of data
+	 * @return true if the snapshot was stored, false if it is too big for a slot
+	 */
+	public synchronized boolean append(long run, long timestamp, String name,
+			byte[] data, int length) {
+		byte[] bytes = name.getBytes(UTF_8);
+		Assert.isTrue(bytes.length <= MAX_NAME, "Name too long: " + name);
+		if (length > getMaxLength()) {
+			return false;
+		}
+		long sequence = this.nextSequence++;
+		int slot = (int) (sequence % this.slots);
+		int offset = offset(slot);
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		this.buffer.putInt(offset, 0);
+		ByteBuffer payload = this.buffer.duplicate();
+		payload.position(offset + SLOT_HEADER);
+		payload.put(data, 0, length);
+		this.buffer.putLong(offset + 4, sequence);
+		this.buffer.putLong(offset + 12, run);
+		this.buffer.putLong(offset + 20, timestamp);
+		this.buffer.putInt(offset + 28, (int) crc.getValue());
+		this.buffer.putInt(offset + 32, length);
+		this.buffer.putShort(offset + 36, (short) bytes.length);
+		ByteBuffer header = this.buffer.duplicate();
+		header.position(offset + 38);
+		header.put(bytes);
+		this.buffer.putInt(offset, SLOT_MAGIC);
+		this.entries[slot] = new Entry(sequence, run, timestamp, name, length);
+		this.lastRun = Math.max(this.lastRun, run);
+		return true;
+	}
+
+	/**
+	 * @return the snapshots in the ring, newest first
+	 */
+	public synchronized List<Entry> getEntries() {
+		List<Entry> result = new ArrayList<Entry>();
+		for (Entry entry : this.entries) {
+			if (entry != null) {
+				result.add(entry);
+			}
+		}
+		Collections.sort(result, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry o1, Entry o2) {
+				return o1.sequence < o2.sequence ? 1 : o1.sequence == o2.sequence ? 0
+						: -1;
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Copy the compressed data of a snapshot.
+	 * @param run the run number
+	 * @param name the endpoint name
+	 * @return the compressed data, or null if it is not in the ring
+	 */
+	public synchronized byte[] read(long run, String name) {
+		for (int slot = 0; slot < this.slots; slot++) {
+			Entry entry = this.entries[slot];
+			if (entry != null && entry.run == run && entry.name.equals(name)) {
+				byte[] data = new byte[entry.length];
+				ByteBuffer payload = this.buffer.duplicate();
+				payload.position(offset(slot) + SLOT_HEADER);
+				payload.get(data);
+				return data;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.buffer.force();
+		this.file.close();
+	}
+
+	/**
+	 * Snapshots can contain sensitive data, so a new file is only readable by its owner,
+	 * and an existing one is not used if it is a symbolic link or (on a POSIX file
+	 * system) belongs to another user, e.g. because somebody created it first in a
+	 * shared temporary directory.
+	 */
+	private static FileChannel open(Path path) throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		boolean posix = path.getFileSystem().supportedFileAttributeViews()
+				.contains("posix");
+		try {
+			if (posix) {
+				Files.createFile(path, PosixFilePermissions
+						.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+			}
+			else {
+				Files.createFile(path);
+			}
+		}
+		catch (FileAlreadyExistsException ex) {
+			if (Files.isSymbolicLink(path)) {
+				throw new IOException("Snapshot ring " + path + " is a symbolic link");
+			}
+			if (posix) {
+				UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+				UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService()
+						.lookupPrincipalByName(System.getProperty("user.name"));
+				if (!owner.equals(user)) {
+					throw new IOException("Snapshot ring " + path + " belongs to "
+							+ owner.getName() + ", not to " + user.getName());
+				}
+			}
+		}
+		return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				LinkOption.NOFOLLOW_LINKS);
+	}
+
+	private boolean readHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(16);
+		while (header.hasRemaining()) {
+			if (this.file.read(header, header.position()) < 0) {
+				return false;
+			}
+		}
+		header.flip();
+		return header.getInt() == FILE_MAGIC && header.getInt() == VERSION
+				&& header.getInt() == this.slots && header.getInt() == this.slotSize;
+	}
+
+	private void scan() {
+		for (int slot = 0; slot < this.slots; slot++) {
+			int offset = offset(slot);
+			if (this.buffer.getInt(offset) != SLOT_MAGIC) {
+				continue;
+			}
+			int length = this.buffer.getInt(offset + 32);
+			int nameLength = this.buffer.getShort(offset + 36);
+			if (length < 0 || length > getMaxLength() || nameLength < 0
+					|| nameLength > MAX_NAME) {
+				continue;
+			}
+			byte[] data = new byte[length];
+			ByteBuffer payload = this.buffer.duplicate();
+			payload.position(offset + SLOT_HEADER);
+			payload.get(data);
+			CRC32 crc = new CRC32();
+			crc.update(data);
+			if ((int) crc.getValue() != this.buffer.getInt(offset + 28)) {
+				continue;
+			}
+			byte[] name = new byte[nameLength];
+			ByteBuffer header = this.buffer.duplicate();
+			header.position(offset + 38);
+			header.get(name);
+			Entry entry = new Entry(this.buffer.getLong(offset + 4),
+					this.buffer.getLong(offset + 12), this.buffer.getLong(offset + 20),
+					new String(name, UTF_8), length);
+			this.entries[slot] = entry;
+			this.nextSequence = Math.max(this.nextSequence, entry.sequence + 1);
+			this.lastRun = Math.max(this.lastRun, entry.run);
+		}
+	}
+
+	private int offset(int slot) {
+		return FILE_HEADER + slot * this.slotSize;
+	}
+
+	/**
+	 * Description of a snapshot stored in the ring.
+	 */
+	public static class Entry {
+
+		private final long sequence;
+
+		private final long run;
+
+		private final long timestamp;
+
+		private final String name;
+
+		private final int length;
+
+		public Entry(long sequence, long run, long timestamp, String name, int length) {
+			this.sequence = sequence;
+			this.run = run;
+			this.timestamp = timestamp;
+			this.name = name;
+			this.length = length;
+		}
+
+		public long getRun() {
+			return this.run;
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getLength() {
+			return this.length;
+		}
+
+	}
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Aggregates sampled stack traces into a trie of frames, stored in parallel {@code int}
+ * arrays indexed by node. Frames are identified by class and method name (not line
+ * number) and interned once, so adding a stack that only visits known frames and nodes
+ * does not allocate. New nodes are allocated in blocks, up to a fixed limit, after which
+ * stacks that would need more nodes are counted as dropped.
+ *
+ * @author Dave Syer
+ *
+ */
+public class StackTrie {
+
+	private static final int ROOT = 0;
+
+	private final int maxNodes;
+
+	private final Map<String, Map<String, Integer>> frameIds = new HashMap<String, Map<String, Integer>>();
+
+	private final List<String> frames = new ArrayList<String>();
+
+	private int[] frame;
+
+	private int[] parent;
+
+	private int[] self;
+
+	private int[] total;
+
+	private int[] firstChild;
+
+	private int[] nextSibling;
+
+	private int size = 1;
+
+	private int samples;
+
+	private int dropped;
+
+	public StackTrie(int maxNodes) {
+		Assert.isTrue(maxNodes > 1, "Maximum number of nodes must be more than 1");
+		this.maxNodes = maxNodes;
+		int initial = Math.min(maxNodes, 1024);
+		this.frame = new int[initial];
+		this.parent = new int[initial];
+		this.self = new int[initial];
+		this.total = new int[initial];
+		this.firstChild = new int[initial];
+		this.nextSibling = new int[initial];
+		this.frame[ROOT] = -1;
+		this.firstChild[ROOT] = -1;
+		this.nextSibling[ROOT] = -1;
+	}
+
+	/**
+	 * Add a stack trace (innermost frame first, as returned by the JVM).
+	 * @param stack the stack trace
+	 * @return true if it was added, false if the trie is full
+	 */
+	public boolean add(StackTraceElement[] stack) {
+		int node = ROOT;
+		for (int i = stack.length - 1; i >= 0; i--) {
+			int child = findChild(node, frameId(stack[i]));
+			if (child < 0) {
+				this.dropped++;
+				return false;
+			}
+			node = child;
+		}
+		this.samples++;
+		this.self[node]++;
+		while (node != ROOT) {
+			this.total[node]++;
+			node = this.parent[node];
+		}
+		this.total[ROOT]++;
+		return true;
+	}
+
+	/**
+	 * @return the number of stacks added
+	 */
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * @return the number of stacks that did not fit in the trie
+	 */
+	public int getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * @return the number of nodes in use (including the root)
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Render the trie in the "collapsed stack" format used by flame graph tools: one line
+	 * per distinct stack, outermost frame first, frames separated by semicolons and
+	 * followed by the number of samples.
+	 * @return the collapsed stacks
+	 */
+	public String toCollapsed() {
+		StringBuilder builder = new StringBuilder();
+		int[] path = new int[this.size];
+		collapse(ROOT, path, 0, builder);
+		return builder.toString();
+	}
+
+	/**
+	 * @return the trie as a tree of {@link Node Nodes}
+	 */
+	public Node toTree() {
+		return node(ROOT);
+	}
+
+	private void collapse(int node, int[] path, int depth, StringBuilder builder) {
+		if (node != ROOT) {
+			path[depth++] = node;
+			if (this.self[node] > 0) {
+				for (int i = 0; i < depth; i++) {
+					if (i > 0) {
+						builder.append(';');
+					}
+					builder.append(this.frames.get(this.frame[path[i]]));
+				}
+				builder.append(' ').append(this.self[node]).append('\n');
+			}
+		}
+		for (int child = this.firstChild[node]; child >= 0; child = this
+				.nextSibling[child]) {
+			collapse(child, path, depth, builder);
+		}
+	}
+
+	private Node node(int index) {
+		List<Node> children = new ArrayList<Node>();
+		for (int child = this.firstChild[index]; child >= 0; child = this
+				.nextSibling[child]) {
+			children.add(node(child));
+		}
+		return new Node(index == ROOT ? "all" : this.frames.get(this.frame[index]),
+				this.self[index], this.total[index], children);
+	}
+
+	private int frameId(StackTraceElement element) {
+		Map<String, Integer> methods = this.frameIds.get(element.getClassName());
+		if (methods == null) {
+			methods = new HashMap<String, Integer>();
+			this.frameIds.put(element.getClassName(), methods);
+		}
+		Integer id = methods.get(element.getMethodName());
+		if (id == null) {
+			id = this.frames.size();
+			this.frames.add(element.getClassName() + "." + element.getMethodName());
+			methods.put(element.getMethodName(), id);
+		}
+		return id;
+	}
+
+	private int findChild(int parent, int frameId) {
+		int last = -1;
+		for (int child = this.firstChild[parent]; child >= 0; child = this
+				.nextSibling[child]) {
+			if (this.frame[child] == frameId) {
+				return child;
+			}
+			last = child;
+		}
+		if (this.size >= this.maxNodes) {
+			return -1;
+		}
+		if (this.size == this.frame.length) {
+			grow();
+		}
+		int child = this.size++;
+		this.frame[child] = frameId;
+		this.firstChild[child] = -1;
+		this.nextSibling[child] = -1;
+		this.parent[child] = parent;
+		if (last < 0) {
+			this.firstChild[parent] = child;
+		}
+		else {
+			this.nextSibling[last] = child;
+		}
+		return child;
+	}
+
+	private void grow() {
+		int capacity = Math.min(this.maxNodes, this.frame.length * 2);
+		this.frame = Arrays.copyOf(this.frame, capacity);
+		this.parent = Arrays.copyOf(this.parent, capacity);
+		this.self = Arrays.copyOf(this.self, capacity);
+		this.total = Arrays.copyOf(this.total, capacity);
+		this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+		this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+	}
+
+	/**
+	 * A frame in the aggregated call tree.
+	 */
+	public static class Node {
+
+		private final String frame;
+
+		private final int self;
+
+		private final int total;
+
+		private final List<Node> children;
+
+		public Node(String frame, int self, int total, List<Node> children) {
+			this.frame = frame;
+			this.self = self;
+			this.total = total;
+			this.children = children;
+		}
+
+		public String getFrame() {
+			return this.frame;
+		}
+
+		public int getSelf() {
+			return this.self;
+		}
+
+		public int getTotal() {
+			return this.total;
+		}
+
+		public List<Node> getChildren() {
+			return this.children;
+		}
+
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.io.IOException;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.DumpEndpoint;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Replacement for the generic MVC adapter of the {@link DumpEndpoint}. A plain "/dump"
+ * behaves as before. With any of the "stream", "state", "namePrefix" or "maxDepth"
+ * parameters the dump is streamed instead: each thread is captured and written to the
+ * response before the next batch is looked at, so memory use is bounded by a small
+ * batch of threads. Threads are filtered on a capture without a stack, and only the
+ * ones that match are captured in full, with the stack truncated to "maxDepth" frames.
+ * The full capture is filtered again, since a thread can change state (or name) between
+ * the two.
+ * A negative "maxDepth" is rejected.
+ *
+ * @author Dave Syer
+ *
+ */
+public class ThreadDumpMvcEndpoint implements MvcEndpoint {
+
+	/**
+	 * Number of threads captured per call to the {@link ThreadMXBean}. Each call is a
+	 * safepoint, so threads are fetched in batches rather than one at a time, but the
+	 * batch is kept small so that only a bounded number of stacks is held at once.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	private final DumpEndpoint delegate;
+
+	private final ManagementServerProperties management;
+
+	private final HrefBuilder hrefs;
+
+	private final JsonFactory factory = new JsonFactory();
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	public ThreadDumpMvcEndpoint(DumpEndpoint delegate,
+			ManagementServerProperties management, HrefBuilder hrefs) {
+		this.delegate = delegate;
+		this.management = management;
+		this.hrefs = hrefs;
+	}
+
+	@RequestMapping(method = RequestMethod.GET, params = { "!stream", "!state",
+			"!namePrefix", "!maxDepth" })
+	@ResponseBody
+	public Object invoke() {
+		if (!this.delegate.isEnabled()) {
+			return new ResponseEntity<Object>(Collections.singletonMap("message",
+					"This endpoint is disabled"), HttpStatus.NOT_FOUND);
+		}
+		return this.delegate.invoke();
+	}
+
+	@RequestMapping(method = RequestMethod.GET)
+	public void stream(@RequestParam(required = false) Thread.State state,
+			@RequestParam(required = false) String namePrefix,
+			@RequestParam(required = false) Integer maxDepth,
+			HttpServletResponse response) throws IOException {
+		if (!this.delegate.isEnabled()) {
+			response.sendError(HttpStatus.NOT_FOUND.value(), "This endpoint is disabled");
+			return;
+		}
+		if (maxDepth != null && maxDepth < 0) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(),
+					"maxDepth must not be negative");
+			return;
+		}
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		JsonGenerator json = this.factory.createGenerator(response.getOutputStream(),
+				JsonEncoding.UTF8);
+		json.writeStartObject();
+		json.writeObjectFieldStart("_links");
+		json.writeObjectFieldStart("self");
+		json.writeStringField("href",
+				this.hrefs.href(this.management.getContextPath() + getPath()));
+		json.writeEndObject();
+		json.writeEndObject();
+		json.writeArrayFieldStart("content");
+		long[] ids = this.threads.getAllThreadIds();
+		for (int start = 0; start < ids.length; start += BATCH_SIZE) {
+			long[] batch = Arrays.copyOfRange(ids, start,
+					Math.min(ids.length, start + BATCH_SIZE));
+			long[] matches = filter(this.threads.getThreadInfo(batch, 0), state,
+					namePrefix);
+			if (matches.length == 0) {
+				continue;
+			}
+			for (ThreadInfo info : this.threads.getThreadInfo(matches,
+					this.threads.isObjectMonitorUsageSupported(),
+					this.threads.isSynchronizerUsageSupported())) {
+				if (matches(info, state, namePrefix)) {
+					write(json, info, maxDepth == null ? Integer.MAX_VALUE : maxDepth);
+				}
+			}
+			json.flush();
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.close();
+	}
+
+	private long[] filter(ThreadInfo[] summaries, Thread.State state, String namePrefix) {
+		long[] matches = new long[summaries.length];
+		int count = 0;
+		for (ThreadInfo summary : summaries) {
+			if (matches(summary, state, namePrefix)) {
+				matches[count++] = summary.getThreadId();
+			}
+		}
+		return Arrays.copyOf(matches, count);
+	}
+
+	private boolean matches(ThreadInfo info, Thread.State state, String namePrefix) {
+		return info != null && (state == null || info.getThreadState() == state)
+				&& (namePrefix == null || info.getThreadName().startsWith(namePrefix));
+	}
+
+	private void write(JsonGenerator json, ThreadInfo info, int maxDepth)
+			throws IOException {
+		json.writeStartObject();
+		json.writeStringField("threadName", info.getThreadName());
+		json.writeNumberField("threadId", info.getThreadId());
+		json.writeStringField("threadState", info.getThreadState().name());
+		json.writeNumberField("blockedCount", info.getBlockedCount());
+		json.writeNumberField("blockedTime", info.getBlockedTime());
+		json.writeNumberField("waitedCount", info.getWaitedCount());
+		json.writeNumberField("waitedTime", info.getWaitedTime());
+		json.writeStringField("lockName", info.getLockName());
+		json.writeNumberField("lockOwnerId", info.getLockOwnerId());
+		json.writeStringField("lockOwnerName", info.getLockOwnerName());
+		json.writeBooleanField("inNative", info.isInNative());
+		json.writeBooleanField("suspended", info.isSuspended());
+		if (info.getLockInfo() != null) {
+			json.writeFieldName("lockInfo");
+			write(json, info.getLockInfo());
+		}
+		StackTraceElement[] stack = info.getStackTrace();
+		int depth = Math.min(stack.length, maxDepth);
+		json.writeArrayFieldStart("stackTrace");
+		for (int i = 0; i < depth; i++) {
+			StackTraceElement element = stack[i];
+			json.writeStartObject();
+			json.writeStringField("className", element.getClassName());
+			json.writeStringField("methodName", element.getMethodName());
+			json.writeStringField("fileName", element.getFileName());
+			json.writeNumberField("lineNumber", element.getLineNumber());
+			json.writeBooleanField("nativeMethod", element.isNativeMethod());
+			json.writeEndObject();
+		}
+		json.writeEndArray();
+		if (depth < stack.length) {
+			json.writeNumberField("truncatedFrames", stack.length - depth);
+		}
+		json.writeArrayFieldStart("lockedMonitors");
+		for (MonitorInfo monitor : info.getLockedMonitors()) {
+			if (monitor.getLockedStackDepth() < depth) {
+				json.writeStartObject();
+				json.writeStringField("className", monitor.getClassName());
+				json.writeNumberField("identityHashCode", monitor.getIdentityHashCode());
+				json.writeNumberField("lockedStackDepth", monitor.getLockedStackDepth());
+				json.writeEndObject();
+			}
+		}
+		json.writeEndArray();
+		json.writeArrayFieldStart("lockedSynchronizers");
+		for (LockInfo lock : info.getLockedSynchronizers()) {
+			write(json, lock);
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+	}
+
+	private void write(JsonGenerator json, LockInfo lock) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("className", lock.getClassName());
+		json.writeNumberField("identityHashCode", lock.getIdentityHashCode());
+		json.writeEndObject();
+	}
+
+	@Override
+	public String getPath() {
+		return "/" + this.delegate.getId();
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return this.delegate.isSensitive();
+	}
+
+	/**
+	 * Claims the {@link DumpEndpoint} so that it does not also get a generic adapter.
+	 */
+	@Override
+	public Class<? extends Endpoint<?>> getEndpointType() {
+		return DumpEndpoint.class;
+	}
+
+}
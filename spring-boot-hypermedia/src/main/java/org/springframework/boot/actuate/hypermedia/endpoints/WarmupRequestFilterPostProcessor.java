@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.hypermedia.endpoints;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+
+/**
+ * {@link BeanPostProcessor} that keeps the requests sent by the {@link EndpointWarmup}
+ * out of the request trace and the request metrics: the filters that record them are
+ * wrapped so that they pass warm-up requests straight down the chain. Other requests,
+ * including ones that copy the warm-up header without its (per-process) value, are
+ * recorded as usual.
+ *
+ * @author Dave Syer
+ *
+ */
+public class WarmupRequestFilterPostProcessor implements BeanPostProcessor {
+
+	private static final Set<String> RECORDING_FILTERS = new HashSet<String>(
+			Arrays.asList("org.springframework.boot.actuate.trace.WebRequestTraceFilter",
+					"org.springframework.boot.actuate.autoconfigure.MetricsFilter"));
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName)
+			throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName)
+			throws BeansException {
+		if (bean instanceof Filter
+				&& RECORDING_FILTERS.contains(bean.getClass().getName())) {
+			return new WarmupSkippingFilter((Filter) bean);
+		}
+		return bean;
+	}
+
+	/**
+	 * Skips the delegate for warm-up requests, in the same position in the chain.
+	 */
+	private static class WarmupSkippingFilter implements Filter, Ordered {
+
+		private final Filter delegate;
+
+		private final int order;
+
+		WarmupSkippingFilter(Filter delegate) {
+			this.delegate = delegate;
+			this.order = delegate instanceof Ordered ? ((Ordered) delegate).getOrder()
+					: OrderUtils.getOrder(delegate.getClass(), Ordered.LOWEST_PRECEDENCE);
+		}
+
+		@Override
+		public void init(FilterConfig config) throws ServletException {
+			this.delegate.init(config);
+		}
+
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response,
+				FilterChain chain) throws IOException, ServletException {
+			if (request instanceof HttpServletRequest
+					&& EndpointWarmup.isWarmupRequest((HttpServletRequest) request)) {
+				chain.doFilter(request, response);
+				return;
+			}
+			this.delegate.doFilter(request, response, chain);
+		}
+
+		@Override
+		public void destroy() {
+			this.delegate.destroy();
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+package org.springframework.boot.actuate.hypermedia.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.hypermedia.client.HypermediaClientTests.Application;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.Link;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+@IntegrationTest("server.port=0")
+@DirtiesContext
+public class HypermediaClientTests {
+
+	@Value("${local.server.port}")
+	private int port;
+
+	@Autowired
+	private RootCounter counter;
+
+	private HypermediaClient client;
+
+	@Before
+	public void init() {
+		this.client = new HypermediaClient("http://localhost:" + this.port + "/");
+		this.counter.count.set(0);
+	}
+
+	@After
+	public void close() throws Exception {
+		this.client.destroy();
+	}
+
+	@Test
+	public void links() {
+		Link health = this.client.getLink("health");
+		assertNotNull(health);
+		assertEquals("http://localhost:" + this.port + "/health", health.getHref());
+	}
+
+	@Test
+	public void linksAreCached() throws Exception {
+		this.client.getLinks();
+		this.client.getLinks();
+		this.client.follow(Map.class, "health").get();
+		assertEquals(1, this.counter.count.get());
+	}
+
+	@Test
+	public void follow() throws Exception {
+		Map<?, ?> health = this.client.follow(Map.class, "health").get();
+		assertEquals("UP", health.get("status"));
+	}
+
+	@Test
+	public void followAll() throws Exception {
+		Map<String, Map> resources = this.client.followAll(Map.class, "health",
+				"metrics").get();
+		assertEquals("UP", resources.get("health").get("status"));
+		assertTrue(resources.get("metrics").containsKey("mem"));
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void missingRel() throws Exception {
+		this.client.follow(Map.class, "missing").get();
+	}
+
+	@Test
+	public void silentServerTimesOut() throws Exception {
+		ServerSocket silent = new ServerSocket(0);
+		HypermediaClient client = new HypermediaClient("http://localhost:"
+				+ silent.getLocalPort() + "/", 1, 5000);
+		try {
+			client.setTimeout(200);
+			long start = System.currentTimeMillis();
+			try {
+				client.getLinks();
+				fail("Expected IllegalStateException");
+			}
+			catch (IllegalStateException ex) {
+				assertTrue(ex.getCause() instanceof TimeoutException);
+			}
+			assertTrue(System.currentTimeMillis() - start < 5000);
+		}
+		finally {
+			client.destroy();
+			silent.close();
+		}
+	}
+
+	@Configuration
+	@EnableAutoConfiguration
+	protected static class Application {
+
+		@Bean
+		public RootCounter rootCounter() {
+			return new RootCounter();
+		}
+
+	}
+
+	/**
+	 * Counts the responses that send the body of the links index (i.e. not 304).
+	 */
+	protected static class RootCounter extends OncePerRequestFilter {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request,
+				HttpServletResponse response, FilterChain filterChain)
+						throws ServletException, IOException {
+			filterChain.doFilter(request, response);
+			if ("/".equals(request.getRequestURI())
+					&& response.getStatus() == HttpServletResponse.SC_OK) {
+				this.count.incrementAndGet();
+			}
+		}
+
+	}
+
+}
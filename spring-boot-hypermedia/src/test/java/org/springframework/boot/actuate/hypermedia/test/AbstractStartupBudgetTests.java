@@ -0,0 +1,54 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Base class for tests that fail if the time from starting an application to the first
+ * successful response from its home page grows beyond a budget. Subclasses give the
+ * application and a budget close to its measured baseline, so that a real regression
+ * shows up, and the budget (in milliseconds) can be overridden for slower machines with
+ * the "startup.budget" system property. Wall clock timings are too noisy for the default
+ * build, so subclasses named StartupBudgetTests only run with the "startup-budget"
+ * profile. Shared with the samples in the test jar of this module.
+ */
+public abstract class AbstractStartupBudgetTests {
+
+	private final Class<?> application;
+
+	private final long budget;
+
+	protected AbstractStartupBudgetTests(Class<?> application, long baseline) {
+		this.application = application;
+		this.budget = Long.getLong("startup.budget", baseline);
+	}
+
+	@Test
+	public void timeToFirstResponse() throws Exception {
+		long start = System.nanoTime();
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				this.application).properties("server.port=0").run();
+		try {
+			int port = ((EmbeddedWebApplicationContext) context)
+					.getEmbeddedServletContainer().getPort();
+			ResponseEntity<String> response = new TestRestTemplate().getForEntity(
+					"http://localhost:" + port + "/", String.class);
+			long elapsed = (System.nanoTime() - start) / 1000000;
+			assertEquals(HttpStatus.OK, response.getStatusCode());
+			assertTrue("Time to first response " + elapsed + "ms is over the budget of "
+					+ this.budget + "ms", elapsed < this.budget);
+		}
+		finally {
+			context.close();
+		}
+	}
+
+}
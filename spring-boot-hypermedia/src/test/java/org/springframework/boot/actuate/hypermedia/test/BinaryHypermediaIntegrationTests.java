@@ -0,0 +1,149 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.converter.CborHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.converter.SmileHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.test.BinaryHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@DirtiesContext
+public class BinaryHypermediaIntegrationTests {
+
+	private static final MediaType SMILE = MediaType
+			.parseMediaType("application/x-jackson-smile");
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private RequestMappingHandlerAdapter handlerAdapter;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void smileTrace() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/trace").accept(SMILE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(SMILE)).andReturn();
+		JsonNode node = new ObjectMapper(new SmileFactory()).readTree(result
+				.getResponse().getContentAsByteArray());
+		assertEquals("http://localhost/trace", node.at("/_links/self/href").asText());
+	}
+
+	@Test
+	public void cborLinks() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/").accept(CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(CBOR)).andReturn();
+		JsonNode node = new ObjectMapper(new CBORFactory()).readTree(result
+				.getResponse().getContentAsByteArray());
+		assertEquals("http://localhost/trace", node.at("/_links/trace/href").asText());
+	}
+
+	@Test
+	public void wildcardEndpointIsJson() throws Exception {
+		this.mockMvc.perform(get("/health").accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void noAcceptEndpointIsJson() throws Exception {
+		this.mockMvc.perform(get("/health")).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void wildcardControllerIsJson() throws Exception {
+		this.mockMvc.perform(get("/greeting").accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void smileNotOfferedToController() throws Exception {
+		this.mockMvc.perform(get("/greeting").accept(SMILE)).andExpect(
+				status().isNotAcceptable());
+	}
+
+	@Test
+	public void convertersAreNotBeans() throws Exception {
+		assertTrue(this.context.getBeansOfType(SmileHttpMessageConverter.class)
+				.isEmpty());
+		assertTrue(this.context.getBeansOfType(CborHttpMessageConverter.class).isEmpty());
+	}
+
+	@Test
+	public void jacksonSettingsApplied() throws Exception {
+		// Boot's builder relaxes this default, a bare ObjectMapper does not
+		assertFalse(findConverter(SmileHttpMessageConverter.class).getObjectMapper()
+				.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		assertFalse(findConverter(CborHttpMessageConverter.class).getObjectMapper()
+				.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+	}
+
+	private <T extends HttpMessageConverter<?>> T findConverter(Class<T> type) {
+		for (HttpMessageConverter<?> converter : this.handlerAdapter
+				.getMessageConverters()) {
+			if (type.isInstance(converter)) {
+				return type.cast(converter);
+			}
+		}
+		throw new IllegalStateException("No converter of type " + type);
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	@RestController
+	public static class SpringBootHypermediaApplication {
+
+		@RequestMapping("/greeting")
+		public Map<String, String> greeting() {
+			return Collections.singletonMap("message", "Hello");
+		}
+
+	}
+
+}
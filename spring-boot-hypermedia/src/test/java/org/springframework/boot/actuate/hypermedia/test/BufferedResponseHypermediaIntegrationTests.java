@@ -0,0 +1,145 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.converter.EndpointResourceWriter;
+import org.springframework.boot.actuate.hypermedia.test.BufferedResponseHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@DirtiesContext
+public class BufferedResponseHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private EndpointResourceWriter writer;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.writer.setMaxBufferSize(64 * 1024);
+		this.writer.getCompression().setMinResponseSize(0);
+	}
+
+	@Test
+	public void contentLength() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(get("/metrics").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$._links").exists())
+				.andReturn().getResponse();
+		assertEquals(response.getContentAsByteArray().length,
+				Integer.parseInt(response.getHeader("Content-Length")));
+	}
+
+	@Test
+	public void oversizedStreamed() throws Exception {
+		this.writer.setMaxBufferSize(16);
+		MockHttpServletResponse response = this.mockMvc
+				.perform(get("/metrics").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$._links").exists())
+				.andReturn().getResponse();
+		assertNull(response.getHeader("Content-Length"));
+	}
+
+	@Test
+	public void gzip() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(
+						get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+								"Accept-Encoding", "gzip, deflate"))
+								.andExpect(status().isOk()).andReturn().getResponse();
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertEquals(response.getContentAsByteArray().length,
+				Integer.parseInt(response.getHeader("Content-Length")));
+		assertTrue(gunzip(response.getContentAsByteArray()).contains("\"_links\""));
+	}
+
+	@Test
+	public void gzipStreamed() throws Exception {
+		this.writer.setMaxBufferSize(16);
+		MockHttpServletResponse response = this.mockMvc
+				.perform(
+						get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+								"Accept-Encoding", "gzip"))
+								.andExpect(status().isOk()).andReturn().getResponse();
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertTrue(gunzip(response.getContentAsByteArray()).contains("\"_links\""));
+	}
+
+	@Test
+	public void gzipNotAccepted() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(
+						get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+								"Accept-Encoding", "gzip;q=0"))
+								.andExpect(status().isOk()).andReturn().getResponse();
+		assertNull(response.getHeader("Content-Encoding"));
+	}
+
+	@Test
+	public void gzipRefusedAfterWildcard() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(
+						get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+								"Accept-Encoding", "*, gzip;q=0"))
+								.andExpect(status().isOk()).andReturn().getResponse();
+		assertNull(response.getHeader("Content-Encoding"));
+	}
+
+	@Test
+	public void buffersReleased() throws Exception {
+		this.mockMvc.perform(
+				get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+						"Accept-Encoding", "gzip")).andExpect(status().isOk());
+		this.writer.destroy();
+		this.writer.setPoolSize(0);
+		MockHttpServletResponse response = this.mockMvc
+				.perform(
+						get("/metrics").accept(MediaType.APPLICATION_JSON).header(
+								"Accept-Encoding", "gzip"))
+								.andExpect(status().isOk()).andReturn().getResponse();
+		assertTrue(gunzip(response.getContentAsByteArray()).contains("\"_links\""));
+		this.writer.setPoolSize(8);
+	}
+
+	private String gunzip(byte[] bytes) throws Exception {
+		return StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(
+				bytes)), Charset.forName("UTF-8"));
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -0,0 +1,129 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.endpoints.ClusterMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.test.ClusterHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.cluster.enabled=true",
+		"endpoints.cluster.timeout=5000" })
+@DirtiesContext
+public class ClusterHypermediaIntegrationTests {
+
+	private static ConfigurableApplicationContext peer;
+
+	private static String peerUrl;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private ClusterMvcEndpoint cluster;
+
+	private MockMvc mockMvc;
+
+	@BeforeClass
+	public static void startPeer() {
+		peer = new SpringApplicationBuilder(PeerApplication.class).properties(
+				"server.port=0").run();
+		int port = ((EmbeddedWebApplicationContext) peer).getEmbeddedServletContainer()
+				.getPort();
+		peerUrl = "http://localhost:" + port + "/";
+	}
+
+	@AfterClass
+	public static void stopPeer() {
+		if (peer != null) {
+			peer.close();
+		}
+	}
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.cluster.setPeers(Arrays.asList(peerUrl, "http://localhost:1/"));
+	}
+
+	@Test
+	public void embedsPeerResources() throws Exception {
+		this.mockMvc
+		.perform(get("/cluster").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._embedded.instances[0]._links.self.href").value(peerUrl))
+		.andExpect(
+				jsonPath("$._embedded.instances[0]._embedded.health.status").value(
+						"UP"))
+						.andExpect(
+								jsonPath("$._embedded.instances[0]._embedded.metrics.mem").exists())
+								.andExpect(jsonPath("$._embedded.instances[0].errors").doesNotExist());
+	}
+
+	@Test
+	public void reportsUnreachablePeer() throws Exception {
+		this.mockMvc.perform(get("/cluster").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._embedded.instances[1].errors.links").exists());
+	}
+
+	@Test
+	public void silentPeerTimesOut() throws Exception {
+		// Accepts connections but never answers
+		ServerSocket silent = new ServerSocket(0);
+		int timeout = this.cluster.getTimeout();
+		try {
+			this.cluster.setPeers(Arrays.asList("http://localhost:"
+					+ silent.getLocalPort() + "/"));
+			this.cluster.setTimeout(200);
+			long start = System.currentTimeMillis();
+			this.mockMvc.perform(get("/cluster").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._embedded.instances[0].errors.timeout").exists());
+			assertTrue(System.currentTimeMillis() - start < timeout);
+		}
+		finally {
+			this.cluster.setTimeout(timeout);
+			silent.close();
+		}
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class PeerApplication {
+
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.EnvironmentEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.ConfigVersionsMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.test.ConfigVersionsHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.config-versions.enabled=true",
+		"versions=shadowed" })
+@DirtiesContext
+public class ConfigVersionsHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private ConfigurableEnvironment environment;
+
+	@Autowired
+	@Qualifier("envVersionsMvcEndpoint")
+	private ConfigVersionsMvcEndpoint versions;
+
+	@Autowired
+	private EnvironmentEndpoint environmentEndpoint;
+
+	private MockMvc mockMvc;
+
+	private int version;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.version = this.versions.record().getNumber();
+	}
+
+	@After
+	public void clean() {
+		this.environment.getPropertySources().remove("diffTest");
+	}
+
+	@Test
+	public void diff() throws Exception {
+		this.environment.getPropertySources().addFirst(
+				new MapPropertySource("diffTest", Collections
+						.<String, Object> singletonMap("foo", "bar")));
+		this.mockMvc
+		.perform(
+				get("/env").param("diffFrom", "" + this.version).accept(
+						MediaType.APPLICATION_JSON))
+						.andExpect(status().isOk())
+						.andExpect(jsonPath("$.from").value(this.version))
+						.andExpect(jsonPath("$.added['diffTest.foo']").value("bar"))
+						.andExpect(jsonPath("$.removed").isEmpty())
+						.andExpect(
+								jsonPath("$._links.from.href").value(
+										"http://localhost/env/_versions/" + this.version));
+	}
+
+	@Test
+	public void noChanges() throws Exception {
+		this.mockMvc
+		.perform(
+				get("/env").param("diffFrom", "" + this.version).accept(
+						MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+						.andExpect(jsonPath("$.to").value(this.version))
+						.andExpect(jsonPath("$.added").isEmpty())
+						.andExpect(jsonPath("$.changed").isEmpty());
+	}
+
+	@Test
+	public void versions() throws Exception {
+		this.mockMvc.perform(get("/env/_versions").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._embedded.versions[0]._links.diff.href").exists());
+	}
+
+	@Test
+	public void plainEnvironment() throws Exception {
+		this.mockMvc.perform(get("/env").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk()).andExpect(jsonPath("$.profiles").exists());
+	}
+
+	@Test
+	public void missingVersion() throws Exception {
+		this.mockMvc.perform(get("/env/_versions/9999").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void propertyNamedVersions() throws Exception {
+		this.mockMvc.perform(get("/env/versions").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(content().string(containsString("shadowed")));
+	}
+
+	@Test
+	public void disabled() throws Exception {
+		this.environmentEndpoint.setEnabled(false);
+		try {
+			this.mockMvc
+			.perform(get("/env/_versions").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("$.message").value("This endpoint is disabled"))
+			.andExpect(jsonPath("$._links").doesNotExist());
+			this.mockMvc
+			.perform(get("/env/_versions/" + this.version).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound());
+			this.mockMvc
+			.perform(get("/env").param("diffFrom", "" + this.version).accept(
+					MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
+		}
+		finally {
+			this.environmentEndpoint.setEnabled(true);
+		}
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -0,0 +1,42 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.hypermedia.endpoints.HrefBuilder;
+import org.springframework.boot.actuate.hypermedia.endpoints.HrefBuilderCurieProvider;
+import org.springframework.boot.actuate.hypermedia.endpoints.HypermediaMetadata;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+
+public class CurieProviderTests {
+
+	private final HypermediaMetadata metadata = new HypermediaMetadata();
+
+	private final HrefBuilderCurieProvider provider = new HrefBuilderCurieProvider(
+			"boot", "/docs/#spring_boot_actuator__{rel}", new HrefBuilder(
+					HrefBuilder.Mode.STATIC, "http://example.com/admin"), this.metadata);
+
+	@Test
+	public void curiesRenderedOnce() {
+		Collection<? extends Object> curies = this.provider
+				.getCurieInformation(new Links());
+		assertEquals("http://example.com/admin/docs/#spring_boot_actuator__{rel}",
+				((Link) curies.iterator().next()).getHref());
+		assertSame(curies, this.provider.getCurieInformation(new Links()));
+		assertEquals(1, this.metadata.getCuries().size());
+	}
+
+	@Test
+	public void relsRenderedOnce() {
+		assertEquals("boot:health", this.provider.getNamespacedRelFor("health"));
+		assertEquals("boot:health",
+				this.provider.getNamespacedRelFrom(new Link("/health", "health")));
+		assertEquals("self", this.provider.getNamespacedRelFor("self"));
+		assertEquals("boot:health", this.metadata.getCuriedRels().get("health"));
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.hypermedia.converter.GsonHalConverterPostProcessor;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+public class GsonHalConverterTests {
+
+	@Test
+	public void contentInlinedNextToLinks() {
+		Gson gson = extend(new Gson());
+		String json = gson.toJson(new EndpointResource(new Bean("bar"), new Link("/")));
+		assertEquals("{\"_links\":{\"self\":{\"href\":\"/\"}},\"foo\":\"bar\"}", json);
+	}
+
+	@Test
+	public void scalarContent() {
+		Gson gson = extend(new Gson());
+		String json = gson.toJson(new EndpointResource("bar", new Link("/")));
+		assertEquals("{\"_links\":{\"self\":{\"href\":\"/\"}},\"content\":\"bar\"}", json);
+	}
+
+	@Test
+	public void customResourceWithoutRawLinks() {
+		Gson gson = extend(new Gson());
+		CustomResource resource = new CustomResource();
+		resource.add(new Link("/"));
+		String json = gson.toJson(resource);
+		assertEquals("{\"_links\":{\"self\":{\"href\":\"/\"}},\"name\":\"custom\"}", json);
+	}
+
+	@Test
+	public void writerSettingsPreserved() {
+		Gson gson = extend(new GsonBuilder().setPrettyPrinting().serializeNulls()
+				.disableHtmlEscaping().create());
+		String json = gson.toJson(new EndpointResource(new Bean(null), new Link("/<")));
+		assertTrue("Not pretty: " + json, json.contains("\n"));
+		assertTrue("Null dropped: " + json, json.contains("\"foo\": null"));
+		assertTrue("Escaped: " + json, json.contains("/<"));
+	}
+
+	private Gson extend(Gson gson) {
+		GsonHttpMessageConverter converter = new GsonHttpMessageConverter();
+		converter.setGson(gson);
+		new GsonHalConverterPostProcessor().postProcessBeforeInitialization(converter,
+				"converter");
+		return converter.getGson();
+	}
+
+	static class Bean {
+
+		private String foo;
+
+		Bean(String foo) {
+			this.foo = foo;
+		}
+
+	}
+
+	static class CustomResource extends ResourceSupport {
+
+		private String name = "custom";
+
+	}
+
+}
@@ -0,0 +1,92 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Compares the size and write/read throughput of the JSON, Smile and CBOR
+ * representations of a links-enhanced endpoint resource shaped like "/beans". Not run as
+ * part of the build: run the main method and read the output.
+ *
+ * @author Dave Syer
+ *
+ */
+public class HypermediaFormatBenchmark {
+
+	private static final int WARMUP = 2000;
+
+	private static final int ITERATIONS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkResource resource = createResource(500);
+		run("json", mapper(new JsonFactory()), resource);
+		run("smile", mapper(new SmileFactory()), resource);
+		run("cbor", mapper(new CBORFactory()), resource);
+	}
+
+	private static void run(String name, ObjectMapper mapper, Object resource)
+			throws Exception {
+		byte[] bytes = mapper.writeValueAsBytes(resource);
+		for (int i = 0; i < WARMUP; i++) {
+			mapper.readTree(mapper.writeValueAsBytes(resource));
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			mapper.writeValueAsBytes(resource);
+		}
+		long write = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			mapper.readTree(bytes);
+		}
+		long read = System.nanoTime() - start;
+		System.out.println(String.format("%-6s %8d bytes %10.0f writes/s %10.0f reads/s",
+				name, bytes.length, ITERATIONS * 1e9 / write, ITERATIONS * 1e9 / read));
+	}
+
+	private static ObjectMapper mapper(JsonFactory factory) {
+		ObjectMapper mapper = new ObjectMapper(factory);
+		mapper.registerModule(new Jackson2HalModule());
+		mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+				new DefaultRelProvider(), null));
+		return mapper;
+	}
+
+	private static BenchmarkResource createResource(int beans) {
+		BenchmarkResource resource = new BenchmarkResource();
+		resource.add(new Link("http://localhost/beans"));
+		for (int i = 0; i < beans; i++) {
+			Map<String, Object> bean = new LinkedHashMap<String, Object>();
+			bean.put("scope", "singleton");
+			bean.put("type", "org.springframework.example.Bean" + i);
+			bean.put("resource", "class path resource [org/example/Config" + i
+					+ ".class]");
+			bean.put("dependencies", new String[] { "bean" + (i + 1), "bean" + (i + 2) });
+			resource.getDetails().put("bean" + i, bean);
+		}
+		return resource;
+	}
+
+	static class BenchmarkResource extends ResourceSupport {
+
+		private final Map<String, Object> details = new LinkedHashMap<String, Object>();
+
+		@JsonAnyGetter
+		public Map<String, Object> getDetails() {
+			return this.details;
+		}
+
+	}
+
+}
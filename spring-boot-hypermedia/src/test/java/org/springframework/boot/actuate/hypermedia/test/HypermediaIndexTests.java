@@ -0,0 +1,92 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaIndex;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaIndexGenerator;
+import org.springframework.boot.actuate.hypermedia.endpoints.HalBrowserEndpoint;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+
+public class HypermediaIndexTests {
+
+	private static final String HAL_BROWSER = "classpath:/META-INF/resources/webjars/hal-browser/b7669f1-1";
+
+	private static final String SPRING_DATA_REST_HAL_BROWSER = "classpath:/META-INF/spring-data-rest/hal-browser/index.html";
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void generatedIndex() throws Exception {
+		File directory = this.temp.newFolder();
+		HypermediaIndexGenerator.main(new String[] { directory.getAbsolutePath() });
+		assertTrue(new File(directory, HypermediaIndex.LOCATION).exists());
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI()
+				.toURL() }, getClass().getClassLoader());
+		HypermediaIndex index = HypermediaIndex.get(classLoader);
+		assertEquals(Boolean.TRUE, index.isPresent(HAL_BROWSER));
+		assertEquals(Boolean.FALSE, index.isPresent(SPRING_DATA_REST_HAL_BROWSER));
+		assertNull(index.isPresent("classpath:/not/indexed"));
+		classLoader.close();
+	}
+
+	@Test
+	public void staleIndexIsNotTrusted() throws Exception {
+		File directory = this.temp.newFolder();
+		File file = new File(directory, HypermediaIndex.LOCATION);
+		file.getParentFile().mkdirs();
+		Properties properties = new Properties();
+		properties.setProperty("resource." + HAL_BROWSER, "false");
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			properties.store(stream, null);
+		}
+		finally {
+			stream.close();
+		}
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI()
+				.toURL() }, getClass().getClassLoader());
+		assertEquals(Boolean.FALSE,
+				HypermediaIndex.get(classLoader).isPresent(HAL_BROWSER));
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				StaleIndexApplication.class).resourceLoader(
+				new DefaultResourceLoader(classLoader)).properties("server.port=0").run();
+		try {
+			assertEquals(1, context.getBeanNamesForType(HalBrowserEndpoint.class).length);
+		}
+		finally {
+			context.close();
+			classLoader.close();
+		}
+	}
+
+	@Test
+	public void missingIndex() throws Exception {
+		URLClassLoader classLoader = new URLClassLoader(new URL[0], null);
+		HypermediaIndex index = HypermediaIndex.get(classLoader);
+		assertTrue(index.isEmpty());
+		assertNull(index.isPresent(HAL_BROWSER));
+		classLoader.close();
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class StaleIndexApplication {
+
+	}
+
+}
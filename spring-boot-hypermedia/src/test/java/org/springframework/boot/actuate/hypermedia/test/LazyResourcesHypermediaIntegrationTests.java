@@ -0,0 +1,73 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.endpoints.LazyResourceHandlerMapping;
+import org.springframework.boot.actuate.hypermedia.test.LazyResourcesHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.hal.lazy=true", "endpoints.hal.path=/hal",
+		"spring.resources.add-mappings=true" })
+@DirtiesContext
+public class LazyResourcesHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private LazyResourceHandlerMapping mapping;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void stubsRegistered() throws Exception {
+		assertEquals(2, this.mapping.getUrlMap().size());
+	}
+
+	@Test
+	public void browser() throws Exception {
+		MvcResult response = this.mockMvc
+				.perform(get("/hal/").accept(MediaType.TEXT_HTML))
+				.andExpect(status().isOk()).andReturn();
+		assertEquals("/hal/browser.html", response.getResponse().getForwardedUrl());
+	}
+
+	@Test
+	public void resource() throws Exception {
+		this.mockMvc.perform(get("/hal/browser.html")).andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("HAL Browser")));
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
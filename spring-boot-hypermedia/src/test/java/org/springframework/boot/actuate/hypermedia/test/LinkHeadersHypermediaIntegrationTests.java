@@ -0,0 +1,88 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.test.LinkHeadersHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@DirtiesContext
+public class LinkHeadersHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void linksHaveHeaders() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(get("/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$._links").exists())
+				.andReturn().getResponse();
+		assertTrue(response.getHeaders("Link").contains(
+				"<http://localhost/trace>;rel=\"trace\""));
+	}
+
+	@Test
+	public void headHasOnlyHeaders() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(head("/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andReturn().getResponse();
+		List<String> links = response.getHeaders("Link");
+		assertTrue(links.contains("<http://localhost/trace>;rel=\"trace\""));
+		assertTrue(links.contains("<http://localhost>;rel=\"self\""));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void headAllowsOnlyReads() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(head("/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andReturn().getResponse();
+		assertEquals("GET,HEAD", response.getHeader("Allow"));
+	}
+
+	@Test
+	public void optionsNotDispatchedByDefault() throws Exception {
+		MockHttpServletResponse response = this.mockMvc
+				.perform(options("/").accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse();
+		assertTrue(response.getHeaders("Link").isEmpty());
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
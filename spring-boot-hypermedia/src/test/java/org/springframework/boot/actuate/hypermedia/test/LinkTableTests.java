@@ -0,0 +1,74 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.hypermedia.endpoints.LinkTable;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class LinkTableTests {
+
+	@Test
+	public void linksGroupedByRel() {
+		LinkTable table = new LinkTable();
+		table.add(new Link("/", "self"));
+		table.add(new Link("/a", "item"));
+		table.add(new Link("/health", "health"));
+		table.add(new Link("/b", "item"));
+		assertEquals(Arrays.asList(new Link("/", "self"), new Link("/a", "item"),
+				new Link("/b", "item"), new Link("/health", "health")), table.getLinks());
+		assertEquals(Arrays.asList("self", "item", "health"), Arrays.asList(table
+				.getLinksByRel().keySet().toArray()));
+		assertEquals(2, table.getLinksByRel().get("item").size());
+	}
+
+	@Test
+	public void lookupByRel() {
+		LinkTable table = new LinkTable();
+		table.add(new Link("/"));
+		table.add(new Link("/a", "item"));
+		table.add(new Link("/b", "item"));
+		assertTrue(table.hasLink("self"));
+		assertEquals("/a", table.getLink("item").getHref());
+		assertEquals("/", table.getId().getHref());
+		assertFalse(table.hasLink("missing"));
+		assertNull(table.getLink("missing"));
+	}
+
+	@Test
+	public void removeLinks() {
+		LinkTable table = new LinkTable();
+		table.add(new Link("/"));
+		table.removeLinks();
+		assertFalse(table.hasLinks());
+		assertFalse(table.hasLink("self"));
+		table.add(new Link("/health", "health"));
+		assertEquals(1, table.getLinks().size());
+		assertEquals("/health", table.getLink("health").getHref());
+	}
+
+	@Test
+	public void halShape() throws Exception {
+		LinkTable table = new LinkTable();
+		table.add(new Link("/"));
+		table.add(new Link("/a", "item"));
+		table.add(new Link("/b", "item"));
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.registerModule(new Jackson2HalModule());
+		JsonNode json = mapper.readTree(mapper.writeValueAsString(table));
+		assertEquals("/", json.path("_links").path("self").path("href").asText());
+		assertEquals(2, json.path("_links").path("item").size());
+		assertFalse(json.has("linksByRel"));
+		assertFalse(json.has("links"));
+	}
+
+}
@@ -0,0 +1,96 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.boot.actuate.hypermedia.endpoints.HypermediaMetadata;
+import org.springframework.boot.actuate.hypermedia.test.ManagementContextMetadataHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@IntegrationTest({ "server.port=0", "management.port=0" })
+@DirtiesContext
+public class ManagementContextMetadataHypermediaIntegrationTests {
+
+	@Value("${local.management.port}")
+	private int port;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private ChildContextListener children;
+
+	@Test
+	public void onlyManagementContextHasMetadata() throws Exception {
+		ApplicationContext child = this.children.child;
+		assertNotNull("No management context", child);
+		HypermediaMetadata metadata = child.getBean(HypermediaMetadata.class);
+		assertEquals(0, this.context.getBeanNamesForType(HypermediaMetadata.class).length);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON));
+		ResponseEntity<String> entity = new TestRestTemplate().exchange(
+				"http://localhost:" + this.port + "/", HttpMethod.GET,
+				new HttpEntity<Void>(null, headers), String.class);
+		assertEquals(HttpStatus.OK, entity.getStatusCode());
+		assertTrue("Wrong body: " + entity.getBody(),
+				entity.getBody().contains("\"_links\":"));
+		MvcEndpoints endpoints = child.getBean(MvcEndpoints.class);
+		assertSame(metadata.getEndpointLinks(endpoints),
+				metadata.getEndpointLinks(endpoints));
+		assertTrue(metadata.getEndpointLinks(new MvcEndpoints()).isEmpty());
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+		@Bean
+		public ChildContextListener childContextListener() {
+			return new ChildContextListener();
+		}
+
+	}
+
+	static class ChildContextListener implements
+			ApplicationListener<ContextRefreshedEvent> {
+
+		private volatile ApplicationContext child;
+
+		@Override
+		public void onApplicationEvent(ContextRefreshedEvent event) {
+			if (event.getApplicationContext().getParent() != null) {
+				this.child = event.getApplicationContext();
+			}
+		}
+
+	}
+
+}
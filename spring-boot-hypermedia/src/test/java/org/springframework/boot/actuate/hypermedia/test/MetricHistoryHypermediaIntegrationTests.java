@@ -0,0 +1,98 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.endpoints.MetricHistoryMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.test.MetricHistoryHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.metrics.history.enabled=true",
+		"endpoints.metrics.history.interval=3600000" })
+@DirtiesContext
+public class MetricHistoryHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private MetricHistoryMvcEndpoint history;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.history.sample();
+	}
+
+	@Test
+	public void metricsLinkToHistory() throws Exception {
+		this.mockMvc
+		.perform(get("/metrics").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(
+				jsonPath("$._links.history.href").value(
+						"http://localhost/metrics/{name}/history{?from,to}"))
+						.andExpect(jsonPath("$._links.history.templated").value(true));
+	}
+
+	@Test
+	public void history() throws Exception {
+		this.mockMvc
+		.perform(get("/metrics/mem/history").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.name").value("mem"))
+		.andExpect(jsonPath("$.values").isArray())
+		.andExpect(jsonPath("$.timestamps").isArray())
+		.andExpect(
+				jsonPath("$._links.self.href").value(
+						"http://localhost/metrics/mem/history"))
+						.andExpect(
+								jsonPath("$._links.metric.href").value(
+										"http://localhost/metrics/mem"));
+	}
+
+	@Test
+	public void historyRange() throws Exception {
+		this.mockMvc
+		.perform(
+				get("/metrics/mem/history?from=0&to=1").accept(
+						MediaType.APPLICATION_JSON))
+						.andExpect(status().isOk())
+						.andExpect(jsonPath("$.values").isArray())
+						.andExpect(jsonPath("$.values[0]").doesNotExist())
+						.andExpect(jsonPath("$._links.next.href").exists());
+	}
+
+	@Test
+	public void unknownMetric() throws Exception {
+		this.mockMvc.perform(
+				get("/metrics/missing/history").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
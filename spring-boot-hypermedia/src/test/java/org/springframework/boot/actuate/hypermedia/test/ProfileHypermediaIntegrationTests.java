@@ -0,0 +1,105 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.test.ProfileHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = "endpoints.profile.enabled=true")
+@DirtiesContext
+public class ProfileHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private Thread sleeper;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.sleeper = new Thread(new Sleeper(), "sleeper");
+		this.sleeper.setDaemon(true);
+		this.sleeper.start();
+	}
+
+	@After
+	public void stop() {
+		this.sleeper.interrupt();
+	}
+
+	@Test
+	public void advertised() throws Exception {
+		this.mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.profile.href").exists());
+	}
+
+	@Test
+	public void profile() throws Exception {
+		this.mockMvc
+		.perform(
+				get("/profile?duration=100&interval=5").accept(
+						MediaType.APPLICATION_JSON))
+						.andExpect(status().isOk())
+						.andExpect(jsonPath("$.samples").value(greaterThan(0)))
+						.andExpect(jsonPath("$.tree.frame").value("all"))
+						.andExpect(
+								jsonPath("$._links.collapsed.href").value(
+										"http://localhost/profile/collapsed?duration=100&interval=5"));
+	}
+
+	@Test
+	public void collapsed() throws Exception {
+		this.mockMvc
+		.perform(get("/profile/collapsed?duration=100&interval=5&state=TIMED_WAITING"))
+		.andExpect(status().isOk())
+		.andExpect(content().string(containsString("Sleeper.run;")));
+	}
+
+	private static class Sleeper implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Thread.sleep(1000);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.endpoints.MetricHistoryMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.test.RelativeLinksHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "management.contextPath:/admin",
+		"endpoints.links.href-mode:relative", "endpoints.metrics.history.enabled:true",
+		"endpoints.metrics.history.interval:3600000" })
+@DirtiesContext
+public class RelativeLinksHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private MetricHistoryMvcEndpoint history;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void links() throws Exception {
+		this.mockMvc.perform(get("/admin").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.self.href").value("/admin"))
+		.andExpect(jsonPath("$._links.trace.href").value("/admin/trace"));
+	}
+
+	@Test
+	public void linksAreStable() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc.perform(
+					get("/admin").accept(MediaType.APPLICATION_JSON).header("Host",
+							"example.com")).andExpect(status().isOk())
+							.andExpect(jsonPath("$._links.trace.href").value("/admin/trace"));
+		}
+	}
+
+	@Test
+	public void linksAreCacheable() throws Exception {
+		String etag = this.mockMvc
+				.perform(get("/admin").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "private, max-age=60"))
+				.andReturn().getResponse().getHeader("ETag");
+		assertNotNull(etag);
+		this.mockMvc.perform(
+				get("/admin").accept(MediaType.APPLICATION_JSON).header("If-None-Match",
+						etag)).andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void trace() throws Exception {
+		this.mockMvc.perform(get("/admin/trace").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.self.href").value("/admin/trace"));
+	}
+
+	@Test
+	public void metricHistory() throws Exception {
+		this.history.sample();
+		this.mockMvc.perform(get("/admin/metrics").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.history.href").value(
+				"/admin/metrics/{name}/history{?from,to}"));
+		this.mockMvc
+		.perform(get("/admin/metrics/mem/history?from=0&to=1").accept(
+				MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$._links.self.href").value(
+						"/admin/metrics/mem/history?from=0&to=1"))
+						.andExpect(jsonPath("$._links.metric.href").value(
+								"/admin/metrics/mem"))
+								.andExpect(jsonPath("$._links.next.href").value(
+										"/admin/metrics/mem/history?from=1&to=2"));
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
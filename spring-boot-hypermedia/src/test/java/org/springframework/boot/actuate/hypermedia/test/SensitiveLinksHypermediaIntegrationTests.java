@@ -0,0 +1,88 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.test.SensitiveLinksHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.links.filter-sensitive:true",
+		"endpoints.links.href-mode:relative" })
+@DirtiesContext
+public class SensitiveLinksHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void anonymousLinks() throws Exception {
+		this.mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.info.href").value("/info"))
+		.andExpect(jsonPath("$._links.trace").doesNotExist());
+	}
+
+	@Test
+	public void adminLinks() throws Exception {
+		this.mockMvc
+		.perform(get("/").accept(MediaType.APPLICATION_JSON).with(role("ADMIN")))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.info.href").value("/info"))
+		.andExpect(jsonPath("$._links.trace.href").value("/trace"));
+	}
+
+	@Test
+	public void linkSetsDoNotLeakBetweenCallers() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc
+			.perform(get("/").accept(MediaType.APPLICATION_JSON).with(role("ADMIN")))
+			.andExpect(jsonPath("$._links.trace").exists());
+			this.mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$._links.trace").doesNotExist());
+		}
+	}
+
+	private static RequestPostProcessor role(final String role) {
+		return new RequestPostProcessor() {
+			@Override
+			public MockHttpServletRequest postProcessRequest(
+					MockHttpServletRequest request) {
+				request.addUserRole(role);
+				return request;
+			}
+		};
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
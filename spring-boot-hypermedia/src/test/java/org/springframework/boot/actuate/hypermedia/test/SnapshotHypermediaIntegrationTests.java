@@ -0,0 +1,156 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.endpoints.SnapshotMvcEndpoint;
+import org.springframework.boot.actuate.hypermedia.endpoints.SnapshotRing;
+import org.springframework.boot.actuate.hypermedia.test.SnapshotHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "endpoints.snapshots.enabled=true",
+		"endpoints.snapshots.interval=3600000",
+		"endpoints.snapshots.endpoints=metrics,trace",
+		"endpoints.snapshots.file=target/snapshots-test.ring",
+		"endpoints.snapshots.slots=8", "endpoints.snapshots.slot-size=65536" })
+@DirtiesContext
+public class SnapshotHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private SnapshotMvcEndpoint snapshots;
+
+	private MockMvc mockMvc;
+
+	private long run;
+
+	@Before
+	public void setUp() throws Exception {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.snapshots.snapshot();
+		// Read the file independently, as it would be after a restart
+		SnapshotRing ring = new SnapshotRing(new File("target/snapshots-test.ring"), 8,
+				65536);
+		try {
+			this.run = ring.getLastRun();
+			assertNotNull(ring.read(this.run, "metrics"));
+		}
+		finally {
+			ring.close();
+		}
+	}
+
+	@Test
+	public void list() throws Exception {
+		this.mockMvc
+		.perform(get("/snapshots").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(
+				jsonPath("$._embedded.snapshots[0]._links.metrics.href").value(
+						"http://localhost/snapshots/" + this.run + "/metrics"))
+						.andExpect(jsonPath("$._embedded.snapshots[0].run").value((int) this.run));
+	}
+
+	@Test
+	public void run() throws Exception {
+		this.mockMvc.perform(get("/snapshots/" + this.run).accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.trace.href").exists())
+		.andExpect(jsonPath("$._links.snapshots.href").exists());
+	}
+
+	@Test
+	public void content() throws Exception {
+		this.mockMvc
+		.perform(get("/snapshots/" + this.run + "/metrics"))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.mem").exists())
+		.andExpect(jsonPath("$._links.self.href").value("/metrics"));
+	}
+
+	@Test
+	public void compressedContent() throws Exception {
+		this.mockMvc
+		.perform(get("/snapshots/" + this.run + "/metrics").header("Accept-Encoding", "gzip"))
+		.andExpect(status().isOk())
+		.andExpect(header().string("Content-Encoding", "gzip"));
+	}
+
+	@Test
+	public void compressionRefused() throws Exception {
+		this.mockMvc
+		.perform(get("/snapshots/" + this.run + "/metrics").header("Accept-Encoding",
+				"gzip;q=0, identity"))
+		.andExpect(status().isOk())
+		.andExpect(header().doesNotExist("Content-Encoding"))
+		.andExpect(jsonPath("$.mem").exists());
+	}
+
+	@Test
+	public void missing() throws Exception {
+		this.mockMvc.perform(get("/snapshots/12345/metrics")).andExpect(
+				status().isNotFound());
+	}
+
+	@Test
+	public void ringIsOwnerOnly() throws Exception {
+		Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews()
+				.contains("posix"));
+		File file = new File("target/snapshots-private.ring");
+		file.delete();
+		new SnapshotRing(file, 2, 1024).close();
+		assertEquals("rw-------", PosixFilePermissions.toString(Files
+				.getPosixFilePermissions(file.toPath())));
+	}
+
+	@Test(expected = IOException.class)
+	public void symbolicLinkRefused() throws Exception {
+		File target = new File("target/snapshots-target.ring");
+		File link = new File("target/snapshots-link.ring");
+		link.delete();
+		target.createNewFile();
+		try {
+			Files.createSymbolicLink(link.toPath(), target.getAbsoluteFile().toPath());
+		}
+		catch (UnsupportedOperationException ex) {
+			Assume.assumeNoException(ex);
+		}
+		new SnapshotRing(link, 2, 1024).close();
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -0,0 +1,74 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaStartupReport;
+import org.springframework.boot.actuate.hypermedia.autoconfigure.HypermediaStartupReport.Phase;
+import org.springframework.boot.actuate.hypermedia.test.StartupReportHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@TestPropertySource(properties = "endpoints.links.startup-report.enabled=true")
+@DirtiesContext
+public class StartupReportHypermediaIntegrationTests {
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Test
+	public void conditions() throws Exception {
+		HypermediaStartupReport report = HypermediaStartupReport.get(this.context
+				.getBeanFactory());
+		assertTrue("Wrong conditions: " + report, containsKey(report, Phase.CONDITIONS,
+				"#halBrowserMvcEndpoint"));
+		assertTrue("Wrong conditions: " + report, containsKey(report, Phase.CONDITIONS,
+				"MissingSpringDataRestResourceCondition"));
+	}
+
+	@Test
+	public void beans() throws Exception {
+		HypermediaStartupReport report = HypermediaStartupReport.get(this.context
+				.getBeanFactory());
+		assertTrue("Wrong beans: " + report,
+				report.getTimings(Phase.BEANS).containsKey("linksMvcEndpoint"));
+		assertTrue("Wrong beans: " + report,
+				report.getTimings(Phase.BEANS).containsKey("halBrowserMvcEndpoint"));
+	}
+
+	@Test
+	public void resourceHandlers() throws Exception {
+		HypermediaStartupReport report = HypermediaStartupReport.get(this.context
+				.getBeanFactory());
+		assertTrue("Wrong resource handlers: " + report,
+				report.getTimings(Phase.RESOURCE_HANDLERS).containsKey(
+						"resourceHandlerMapping"));
+	}
+
+	private boolean containsKey(HypermediaStartupReport report, Phase phase,
+			String suffix) {
+		for (String key : report.getTimings(phase).keySet()) {
+			if (key.endsWith(suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
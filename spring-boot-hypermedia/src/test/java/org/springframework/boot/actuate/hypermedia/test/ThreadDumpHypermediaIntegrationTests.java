@@ -0,0 +1,160 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.test.ThreadDumpHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@DirtiesContext
+public class ThreadDumpHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private Thread sleeper;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+		this.sleeper = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(60000);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "dump-test-sleeper");
+		this.sleeper.setDaemon(true);
+		this.sleeper.start();
+	}
+
+	@After
+	public void stop() {
+		this.sleeper.interrupt();
+	}
+
+	@Test
+	public void plain() throws Exception {
+		this.mockMvc.perform(get("/dump").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content").isArray())
+		.andExpect(jsonPath("$._links.self.href").value("http://localhost/dump"));
+	}
+
+	@Test
+	public void stream() throws Exception {
+		this.mockMvc
+		.perform(get("/dump?stream=true").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content").isArray())
+		.andExpect(jsonPath("$._links.self.href").value("http://localhost/dump"));
+	}
+
+	@Test
+	public void namePrefix() throws Exception {
+		this.mockMvc
+		.perform(get("/dump?namePrefix=dump-test-").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].threadName").value("dump-test-sleeper"));
+	}
+
+	@Test
+	public void state() throws Exception {
+		this.mockMvc
+		.perform(
+				get("/dump?namePrefix=dump-test-&state=BLOCKED").accept(
+						MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+						.andExpect(jsonPath("$.content", hasSize(0)));
+	}
+
+	@Test
+	public void stateCheckedOnFullCapture() throws Exception {
+		// Flips between RUNNABLE and TIMED_WAITING, so it is sometimes caught changing
+		// state between the summary and the full capture
+		Thread flipper = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!Thread.currentThread().isInterrupted()) {
+					long spin = System.nanoTime() + 100000;
+					while (System.nanoTime() < spin) {
+						// busy
+					}
+					try {
+						Thread.sleep(0, 100000);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, "dump-test-flipper");
+		flipper.setDaemon(true);
+		flipper.start();
+		try {
+			for (int i = 0; i < 50; i++) {
+				this.mockMvc
+				.perform(
+						get("/dump?namePrefix=dump-test-flipper&state=TIMED_WAITING")
+						.accept(MediaType.APPLICATION_JSON))
+						.andExpect(status().isOk())
+						.andExpect(jsonPath("$.content[*].threadState",
+								everyItem(equalTo("TIMED_WAITING"))));
+			}
+		}
+		finally {
+			flipper.interrupt();
+		}
+	}
+
+	@Test
+	public void maxDepth() throws Exception {
+		this.mockMvc
+		.perform(
+				get("/dump?namePrefix=dump-test-&maxDepth=1").accept(
+						MediaType.APPLICATION_JSON))
+						.andExpect(status().isOk())
+						.andExpect(jsonPath("$.content[0].stackTrace", hasSize(1)))
+						.andExpect(jsonPath("$.content[0].truncatedFrames").exists());
+	}
+
+	@Test
+	public void negativeMaxDepth() throws Exception {
+		this.mockMvc.perform(
+				get("/dump?maxDepth=-1").accept(MediaType.APPLICATION_JSON)).andExpect(
+						status().isBadRequest());
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -0,0 +1,178 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.MetricFilterAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.TraceRepositoryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.TraceWebFilterAutoConfiguration;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointWarmup;
+import org.springframework.boot.actuate.hypermedia.test.WarmupHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+import org.springframework.boot.actuate.metrics.writer.DefaultCounterService;
+import org.springframework.boot.actuate.metrics.writer.DefaultGaugeService;
+import org.springframework.boot.actuate.trace.TraceRepository;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.boot.test.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@IntegrationTest({ "server.port=0", "endpoints.links.warmup.enabled=true",
+		"endpoints.links.warmup.iterations=2" })
+@DirtiesContext
+public class WarmupHypermediaIntegrationTests {
+
+	@Value("${local.server.port}")
+	private int port;
+
+	@Autowired
+	private EndpointWarmup warmup;
+
+	@Autowired
+	private WarmupRecorder recorder;
+
+	@Autowired
+	private InMemoryMetricRepository metrics;
+
+	@Autowired
+	private TraceRepository traces;
+
+	@Test
+	public void warmedUp() throws Exception {
+		awaitWarmup();
+		assertNotNull(this.metrics.findOne("gauge.hypermedia.warmup"));
+		// Two iterations of the links index and of each included endpoint
+		assertEquals(2, this.recorder.count("/"));
+		assertEquals(2, this.recorder.count("/health"));
+		assertEquals(2, this.recorder.count("/metrics"));
+	}
+
+	@Test
+	public void onlyCheapEndpoints() throws Exception {
+		awaitWarmup();
+		// The dump endpoint is in the links index, but not in the included rels
+		assertFalse(this.warmup.getInclude().contains("dump"));
+		assertEquals(0, this.recorder.count("/dump"));
+		for (String uri : this.recorder.uris) {
+			String rel = uri.substring(uri.lastIndexOf('/') + 1);
+			assertTrue("Unexpected warm-up request: " + uri,
+					rel.isEmpty() || this.warmup.getInclude().contains(rel));
+		}
+	}
+
+	@Test
+	public void warmupNotRecorded() throws Exception {
+		awaitWarmup();
+		assertTrue(this.traces.findAll().isEmpty());
+		assertNull(this.metrics.findOne("counter.status.200.health"));
+		// Other requests to the same endpoints are still recorded
+		new TestRestTemplate().getForObject("http://localhost:" + this.port
+				+ "/health", String.class);
+		// Both are recorded once the filter chain unwinds, possibly after the response
+		long timeout = System.currentTimeMillis() + 5000;
+		while (this.metrics.findOne("counter.status.200.health") == null
+				&& System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+		assertEquals(1, this.traces.findAll().size());
+		assertNotNull(this.metrics.findOne("counter.status.200.health"));
+	}
+
+	private void awaitWarmup() throws InterruptedException {
+		// The warm-up runs in the background
+		long timeout = System.currentTimeMillis() + 10000;
+		while (this.warmup.getDuration() < 0 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+		assertTrue("Warm-up did not run", this.warmup.getDuration() >= 0);
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	@Import({ MetricServices.class, MetricFilterAutoConfiguration.class,
+			TraceRepositoryAutoConfiguration.class,
+			TraceWebFilterAutoConfiguration.class })
+	public static class SpringBootHypermediaApplication {
+
+		@Bean
+		public WarmupRecorder warmupRecorder() {
+			return new WarmupRecorder();
+		}
+
+	}
+
+	@Configuration
+	protected static class MetricServices {
+
+		@Bean
+		public InMemoryMetricRepository metricRepository() {
+			return new InMemoryMetricRepository();
+		}
+
+		@Bean
+		public DefaultGaugeService gaugeService(InMemoryMetricRepository repository) {
+			return new DefaultGaugeService(repository);
+		}
+
+		@Bean
+		public DefaultCounterService counterService(InMemoryMetricRepository repository) {
+			return new DefaultCounterService(repository);
+		}
+
+	}
+
+	/**
+	 * Records the URIs of the requests sent by the warm-up.
+	 */
+	protected static class WarmupRecorder extends OncePerRequestFilter {
+
+		private final List<String> uris = new CopyOnWriteArrayList<String>();
+
+		@Override
+		protected void doFilterInternal(HttpServletRequest request,
+				HttpServletResponse response, FilterChain filterChain)
+				throws ServletException, IOException {
+			if (EndpointWarmup.isWarmupRequest(request)) {
+				this.uris.add(request.getRequestURI());
+			}
+			filterChain.doFilter(request, response);
+		}
+
+		public int count(String uri) {
+			int count = 0;
+			for (String recorded : this.uris) {
+				if (recorded.equals(uri)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+	}
+
+}
@@ -0,0 +1,155 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.hypermedia.converter.EndpointResourceXmlHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+public class XmlConverterTests {
+
+	private EndpointResourceXmlHttpMessageConverter converter = new EndpointResourceXmlHttpMessageConverter();
+
+	@Test
+	public void jacksonAnnotationsRespected() throws Exception {
+		String xml = write(new Bean());
+		assertTrue(xml, xml.contains("<renamed>foo</renamed>"));
+		assertTrue(xml, xml.contains("<extra>bar</extra>"));
+		assertFalse(xml, xml.contains("secret"));
+	}
+
+	@Test
+	public void health() throws Exception {
+		String xml = write(new Health.Builder().up().withDetail("disk", "ok").build());
+		assertTrue(xml, xml.contains("<status>UP</status><disk>ok</disk>"));
+		assertFalse(xml, xml.contains("<status><status>"));
+		assertFalse(xml, xml.contains("description"));
+	}
+
+	@Test
+	public void unwrappedWithPrefix() throws Exception {
+		String xml = write(new Outer());
+		assertTrue(xml, xml.contains("<inner_name>foo</inner_name>"));
+	}
+
+	@Test
+	public void valueTypesAsText() throws Exception {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("uri", URI.create("http://example.com/foo"));
+		map.put("uuid", UUID.fromString("0b6e2d2c-2b7a-4a44-9a0e-7c9f0b5a2f11"));
+		map.put("locale", Locale.UK);
+		map.put("file", new File("/tmp/foo"));
+		String xml = write(map);
+		assertTrue(xml, xml.contains("<uri>http://example.com/foo</uri>"));
+		assertTrue(xml,
+				xml.contains("<uuid>0b6e2d2c-2b7a-4a44-9a0e-7c9f0b5a2f11</uuid>"));
+		assertTrue(xml, xml.contains("<locale>en_GB</locale>"));
+		assertTrue(xml, xml.contains("<file>" + new File("/tmp/foo").getAbsolutePath()
+				+ "</file>"));
+	}
+
+	@Test
+	public void customSerializer() throws Exception {
+		String xml = write(Collections.singletonMap("custom", new Custom()));
+		assertTrue(xml, xml.contains("<custom>custom</custom>"));
+	}
+
+	@Test(expected = HttpMessageNotWritableException.class)
+	public void tooDeep() throws Exception {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		Map<String, Object> current = map;
+		for (int i = 0; i < 40; i++) {
+			Map<String, Object> child = new LinkedHashMap<String, Object>();
+			current.put("child", child);
+			current = child;
+		}
+		current.put("leaf", "value");
+		write(map);
+	}
+
+	private String write(Object content) throws Exception {
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		this.converter.write(new EndpointResource(content, new Link("/")),
+				MediaType.APPLICATION_XML, output);
+		return output.getBodyAsString();
+	}
+
+	static class Outer {
+
+		@JsonUnwrapped(prefix = "inner_")
+		public Inner getInner() {
+			return new Inner();
+		}
+
+	}
+
+	static class Inner {
+
+		public String getName() {
+			return "foo";
+		}
+
+		@JsonInclude(Include.NON_EMPTY)
+		public String getEmpty() {
+			return "";
+		}
+
+	}
+
+	@JsonSerialize(using = ToStringSerializer.class)
+	static class Custom {
+
+		public String getName() {
+			return "exploded";
+		}
+
+		@Override
+		public String toString() {
+			return "custom";
+		}
+
+	}
+
+	static class Bean {
+
+		@JsonProperty("renamed")
+		public String getName() {
+			return "foo";
+		}
+
+		@JsonIgnore
+		public String getSecret() {
+			return "secret";
+		}
+
+		@JsonAnyGetter
+		public Map<String, Object> getOthers() {
+			return Collections.<String, Object> singletonMap("extra", "bar");
+		}
+
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.hypermedia.converter.EndpointResourceXmlHttpMessageConverter;
+import org.springframework.boot.actuate.hypermedia.endpoints.EndpointResource;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Compares the throughput of the generic Jackson XML converter with the streaming
+ * {@link EndpointResourceXmlHttpMessageConverter} for a /beans-shaped endpoint resource.
+ * Not run as part of the build: run the main method and read the output.
+ *
+ * @author Dave Syer
+ *
+ */
+public class XmlFormatBenchmark {
+
+	private static final int WARMUP = 2000;
+
+	private static final int ITERATIONS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+				new MockHttpServletRequest()));
+		EndpointResource resource = new EndpointResource(createBeans(500), "/beans");
+		run("jackson", new MappingJackson2XmlHttpMessageConverter(), resource);
+		run("stax", new EndpointResourceXmlHttpMessageConverter(), resource);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void run(String name, HttpMessageConverter<?> converter,
+			ResourceSupport resource) throws Exception {
+		HttpMessageConverter<Object> writer = (HttpMessageConverter<Object>) converter;
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		writer.write(resource, MediaType.APPLICATION_XML, output);
+		int size = output.getBodyAsBytes().length;
+		for (int i = 0; i < WARMUP; i++) {
+			writer.write(resource, MediaType.APPLICATION_XML, new MockHttpOutputMessage());
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			writer.write(resource, MediaType.APPLICATION_XML, new MockHttpOutputMessage());
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(String.format("%-8s %8d bytes %10.0f writes/s", name, size,
+				ITERATIONS * 1e9 / elapsed));
+	}
+
+	private static Map<String, Object> createBeans(int beans) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < beans; i++) {
+			Map<String, Object> bean = new LinkedHashMap<String, Object>();
+			bean.put("scope", "singleton");
+			bean.put("type", "org.springframework.example.Bean" + i);
+			bean.put("resource", "class path resource [org/example/Config" + i
+					+ ".class]");
+			bean.put("dependencies", new String[] { "bean" + (i + 1), "bean" + (i + 2) });
+			result.put("bean" + i, bean);
+		}
+		return result;
+	}
+
+}
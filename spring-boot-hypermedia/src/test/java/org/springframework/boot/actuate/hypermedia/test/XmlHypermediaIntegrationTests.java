@@ -0,0 +1,84 @@
+package org.springframework.boot.actuate.hypermedia.test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.xpath;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.hypermedia.test.XmlHypermediaIntegrationTests.SpringBootHypermediaApplication;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = SpringBootHypermediaApplication.class)
+@WebAppConfiguration
+@DirtiesContext
+public class XmlHypermediaIntegrationTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+	}
+
+	@Test
+	public void metrics() throws Exception {
+		this.mockMvc
+		.perform(get("/metrics").accept(MediaType.APPLICATION_XML))
+		.andExpect(status().isOk())
+		.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML))
+		.andExpect(
+				xpath("/resource/link[@rel='self']/@href").string(
+						"http://localhost/metrics"))
+						.andExpect(xpath("/resource/mem").exists());
+	}
+
+	@Test
+	public void trace() throws Exception {
+		this.mockMvc
+		.perform(get("/trace").accept(MediaType.APPLICATION_XML))
+		.andExpect(status().isOk())
+		.andExpect(
+				xpath("/resource/link[@rel='self']/@href").string(
+						"http://localhost/trace"))
+						.andExpect(xpath("/resource/content").exists());
+	}
+
+	@Test
+	public void health() throws Exception {
+		this.mockMvc.perform(get("/health").accept(MediaType.APPLICATION_XML))
+		.andExpect(status().isOk())
+		.andExpect(xpath("/resource/status").string("UP"))
+		.andExpect(xpath("/resource/status/status").doesNotExist())
+		.andExpect(xpath("/resource/description").doesNotExist());
+	}
+
+	@Test
+	public void mappings() throws Exception {
+		this.mockMvc.perform(get("/mappings").accept(MediaType.APPLICATION_XML))
+		.andExpect(status().isOk())
+		.andExpect(xpath("/resource/entry/@key").exists());
+	}
+
+	@MinimalActuatorHypermediaApplication
+	@Configuration
+	public static class SpringBootHypermediaApplication {
+
+	}
+
+}
@@ -33,13 +33,20 @@ public class SpringBootHypermediaApplicationTests {
 		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
 	}
 
+	@Test
+	public void links() throws Exception {
+		this.mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$._links.health.href").value("http://localhost/health"));
+	}
+
 	@Test
 	public void health() throws Exception {
 		this.mockMvc
 		.perform(get("/health").accept(MediaType.APPLICATION_JSON))
 		.andExpect(status().isOk())
-		.andExpect(jsonPath("$.links[0].href").value("http://localhost/health"))
-		.andExpect(jsonPath("$.content.status").exists());
+		.andExpect(jsonPath("$._links.self.href").value("http://localhost/health"))
+		.andExpect(jsonPath("$.status").exists());
 	}
 
 	@Test
@@ -47,7 +54,7 @@ public class SpringBootHypermediaApplicationTests {
 		this.mockMvc
 		.perform(get("/trace").accept(MediaType.APPLICATION_JSON))
 		.andExpect(status().isOk())
-		.andExpect(jsonPath("$.links[0].href").value("http://localhost/trace"))
+		.andExpect(jsonPath("$._links.self.href").value("http://localhost/trace"))
 		.andExpect(jsonPath("$.content").isArray());
 	}
 
@@ -0,0 +1,15 @@
+package demo;
+
+import org.springframework.boot.actuate.hypermedia.test.AbstractStartupBudgetTests;
+
+/**
+ * Time to first response of the JPA sample (about 6s on a developer laptop, most of it
+ * Hibernate and Spring Data REST).
+ */
+public class StartupBudgetTests extends AbstractStartupBudgetTests {
+
+	public StartupBudgetTests() {
+		super(JpaHypermediaApplication.class, 7500);
+	}
+
+}
@@ -0,0 +1,14 @@
+package demo;
+
+import org.springframework.boot.actuate.hypermedia.test.AbstractStartupBudgetTests;
+
+/**
+ * Time to first response of the plain sample (about 3.5s on a developer laptop).
+ */
+public class StartupBudgetTests extends AbstractStartupBudgetTests {
+
+	public StartupBudgetTests() {
+		super(SpringBootHypermediaApplication.class, 4500);
+	}
+
+}
@@ -16,41 +16,59 @@
 
 package autoconfigure;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
-import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.PostConstruct;
 
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.EndpointAutoConfiguration;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties;
+import org.springframework.boot.actuate.endpoint.AutoConfigurationReportEndpoint;
+import org.springframework.boot.actuate.endpoint.BeansEndpoint;
 import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.RequestMappingEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
-import org.springframework.boot.autoconfigure.AutoConfigureBefore;
-import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnResource;
 import org.springframework.boot.autoconfigure.hateoas.HypermediaAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.MethodParameter;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestResponseBodyMethodProcessor;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 
 import endpoints.HalBrowserEndpoint;
 import endpoints.LinksMvcEndpoint;
@@ -60,11 +78,12 @@ import endpoints.LinksMvcEndpoint;
  *
  */
 @Configuration
-@EnableAspectJAutoProxy(proxyTargetClass = true)
-@AutoConfigureAfter(HypermediaAutoConfiguration.class)
-@AutoConfigureBefore(AopAutoConfiguration.class)
+@AutoConfigureAfter({ HypermediaAutoConfiguration.class, EndpointAutoConfiguration.class })
 public class EndpointHypermediaAutoConfiguration {
 
+	@Autowired(required = false)
+	private ObjectMapper objectMapper;
+
 	@Bean
 	public LinksMvcEndpoint linksMvcEndpoint(BeanFactory beanFactory, ManagementServerProperties management) {
 		return new LinksMvcEndpoint(beanFactory, management.getContextPath());
@@ -76,118 +95,305 @@ public class EndpointHypermediaAutoConfiguration {
 		return new HalBrowserEndpoint(management);
 	}
 
-	@Aspect
-	@Component
-	public static class WebEndpointPostProcessorConfiguration {
+	@Bean
+	public UnwrappableTypes endpointResourceUnwrappableTypes() {
+		return new UnwrappableTypes(this.objectMapper != null ? this.objectMapper
+				: new ObjectMapper());
+	}
 
-		@Autowired
-		ManagementServerProperties management;
+	@Bean
+	@ConditionalOnBean(AutoConfigurationReportEndpoint.class)
+	public EndpointMvcAdapter autoConfigurationReportMvcEndpoint(
+			AutoConfigurationReportEndpoint delegate,
+			ManagementServerProperties management) {
+		return new CachingEndpointMvcAdapter(delegate, management.getContextPath(),
+				endpointResourceUnwrappableTypes());
+	}
 
-		@Autowired
-		ObjectMapper mapper;
-
-		@Around("execution(@org.springframework.web.bind.annotation.RequestMapping public "
-				+ "* org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint+.*(..))"
-				+ " && !execution(* endpoints.LinksMvcEndpoint+.*(..))"
-				+ " && !execution(* endpoints.HalBrowserEndpoint+.*(..))")
-		public Object enhance(ProceedingJoinPoint joinPoint) throws Throwable {
-			return new EndpointResource(joinPoint.proceed(), this.mapper,
-					(MvcEndpoint) joinPoint.getTarget(), this.management.getContextPath());
-		}
+	@Bean
+	@ConditionalOnBean(BeansEndpoint.class)
+	public EndpointMvcAdapter beansMvcEndpoint(BeansEndpoint delegate,
+			ManagementServerProperties management) {
+		return new CachingEndpointMvcAdapter(delegate, management.getContextPath(),
+				endpointResourceUnwrappableTypes());
 	}
 
+	@Bean
+	@ConditionalOnBean(RequestMappingEndpoint.class)
+	public EndpointMvcAdapter requestMappingMvcEndpoint(RequestMappingEndpoint delegate,
+			ManagementServerProperties management) {
+		return new CachingEndpointMvcAdapter(delegate, management.getContextPath(),
+				endpointResourceUnwrappableTypes());
+	}
+
+	/**
+	 * Wraps the results of the {@link MvcEndpoint} request mappings in an
+	 * {@link EndpointResource} before they are written. The endpoints are left alone (no
+	 * proxies): the default {@code @ResponseBody} return value handler is decorated
+	 * instead, once, when the handler adapter is ready. Can be switched off with
+	 * "endpoints.enhancement.enabled=false" (e.g. to compare with another way of wrapping
+	 * the results).
+	 */
 	@Component
-	public static class GenericEndpointPostProcessor {
+	@ConditionalOnProperty(value = "endpoints.enhancement.enabled", matchIfMissing = true)
+	public static class EndpointResourceReturnValueHandlerInstaller {
 
 		@Autowired
-		MvcEndpoints endpoints;
+		RequestMappingHandlerAdapter adapter;
 
 		@Autowired
-		ObjectMapper mapper;
+		MvcEndpoints endpoints;
 
 		@Autowired
 		ManagementServerProperties management;
 
+		@Autowired
+		UnwrappableTypes types;
+
 		@PostConstruct
 		public void init() {
-			for (MvcEndpoint bean : this.endpoints.getEndpoints()) {
-				if (bean instanceof EndpointMvcAdapter) {
-					EndpointMvcAdapter adapter = (EndpointMvcAdapter) bean;
-					GenericEndpointAdapter endpoint = new GenericEndpointAdapter(
-							adapter.getDelegate(), adapter, this.mapper,
-							this.management.getContextPath());
-					/*
-					 * This works, but it is fragile (reflection)
-					 */
-					Field field = ReflectionUtils.findField(EndpointMvcAdapter.class,
-							"delegate");
-					ReflectionUtils.makeAccessible(field);
-					ReflectionUtils.setField(field, adapter, endpoint);
+			List<HandlerMethodReturnValueHandler> handlers = new ArrayList<HandlerMethodReturnValueHandler>();
+			for (HandlerMethodReturnValueHandler handler : this.adapter
+					.getReturnValueHandlers()) {
+				if (handler instanceof RequestResponseBodyMethodProcessor) {
+					handler = new EndpointResourceReturnValueHandler(handler,
+							this.endpoints, this.management.getContextPath(), this.types);
 				}
+				handlers.add(handler);
 			}
+			this.adapter.setReturnValueHandlers(handlers);
 		}
 
 	}
 
 }
 
-class GenericEndpointAdapter implements Endpoint<EndpointResource> {
+/**
+ * Return value handler that wraps the result of an {@link MvcEndpoint} request mapping in
+ * an {@link EndpointResource} and passes it on to the handler it decorates. The endpoint
+ * for a request is worked out from the matching pattern once and then cached.
+ */
+class EndpointResourceReturnValueHandler implements HandlerMethodReturnValueHandler {
 
-	private Endpoint<?> delegate;
-	private EndpointMvcAdapter generic;
-	private String rootPath;
-	private ObjectMapper mapper;
+	private final HandlerMethodReturnValueHandler delegate;
 
-	public GenericEndpointAdapter(Endpoint<?> endpoint, EndpointMvcAdapter generic,
-			ObjectMapper mapper, String rootPath) {
-		this.delegate = endpoint;
-		this.generic = generic;
-		this.mapper = mapper;
+	private final MvcEndpoints endpoints;
+
+	private final String rootPath;
+
+	private final UnwrappableTypes types;
+
+	private final Map<String, EndpointResourceTemplate> templates = new ConcurrentHashMap<String, EndpointResourceTemplate>();
+
+	public EndpointResourceReturnValueHandler(HandlerMethodReturnValueHandler delegate,
+			MvcEndpoints endpoints, String rootPath, UnwrappableTypes types) {
+		this.delegate = delegate;
+		this.endpoints = endpoints;
 		this.rootPath = rootPath;
+		this.types = types;
 	}
 
 	@Override
-	public String getId() {
-		return this.delegate.getId();
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return this.delegate.supportsReturnType(returnType);
 	}
 
 	@Override
-	public boolean isEnabled() {
-		return this.delegate.isEnabled();
+	public void handleReturnValue(Object returnValue, MethodParameter returnType,
+			ModelAndViewContainer mavContainer, NativeWebRequest webRequest)
+			throws Exception {
+		if (returnValue != null && !(returnValue instanceof ResourceSupport)) {
+			EndpointResourceTemplate template = findTemplate(returnType.getMethod()
+					.getDeclaringClass(), webRequest);
+			if (template != null) {
+				returnValue = template.create(returnValue);
+			}
+		}
+		this.delegate.handleReturnValue(returnValue, returnType, mavContainer,
+				webRequest);
 	}
 
-	@Override
-	public boolean isSensitive() {
-		return this.delegate.isSensitive();
+	private EndpointResourceTemplate findTemplate(Class<?> type,
+			NativeWebRequest webRequest) {
+		if (!MvcEndpoint.class.isAssignableFrom(type)
+				|| LinksMvcEndpoint.class.isAssignableFrom(type)
+				|| HalBrowserEndpoint.class.isAssignableFrom(type)) {
+			return null;
+		}
+		String pattern = (String) webRequest.getAttribute(
+				HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+		if (pattern == null) {
+			return null;
+		}
+		EndpointResourceTemplate template = this.templates.get(pattern);
+		if (template == null) {
+			MvcEndpoint endpoint = null;
+			int longest = -1;
+			for (MvcEndpoint candidate : this.endpoints.getEndpoints()) {
+				String path = this.rootPath + candidate.getPath();
+				if (type.isInstance(candidate) && path.length() > longest
+						&& (pattern.equals(path) || pattern.startsWith(path + "/"))) {
+					endpoint = candidate;
+					longest = path.length();
+				}
+			}
+			if (endpoint == null) {
+				return null;
+			}
+			template = new EndpointResourceTemplate(endpoint, this.rootPath, this.types);
+			this.templates.put(pattern, template);
+		}
+		return template;
+	}
+
+}
+
+/**
+ * Generic MVC adapter for an endpoint whose result does not change once the application
+ * context is up (e.g. "/beans" or "/autoconfig"). The delegate is invoked and its result
+ * wrapped only once per base URL, and the same {@link EndpointResource} is returned after
+ * that. Registered as an {@link MvcEndpoint} bean, so the default generic adapter for the
+ * same endpoint type is not created.
+ */
+class CachingEndpointMvcAdapter extends EndpointMvcAdapter {
+
+	private static final int MAX_BASES = 16;
+
+	private final EndpointResourceTemplate template;
+
+	private final Map<String, EndpointResource> resources = new ConcurrentHashMap<String, EndpointResource>();
+
+	public CachingEndpointMvcAdapter(Endpoint<?> delegate, String rootPath,
+			UnwrappableTypes types) {
+		super(delegate);
+		this.template = new EndpointResourceTemplate(this, rootPath, types);
 	}
 
 	@Override
-	public EndpointResource invoke() {
-		return new EndpointResource(this.delegate.invoke(), this.mapper, this.generic,
-				this.rootPath);
+	@RequestMapping(method = RequestMethod.GET)
+	@ResponseBody
+	public Object invoke() {
+		if (!getDelegate().isEnabled()) {
+			return super.invoke();
+		}
+		String base = EndpointResourceTemplate.currentBase();
+		EndpointResource resource = this.resources.get(base);
+		if (resource == null) {
+			if (this.resources.size() >= MAX_BASES) {
+				this.resources.clear();
+			}
+			resource = this.template.create(getDelegate().invoke(), base);
+			this.resources.put(base, resource);
+		}
+		return resource;
 	}
 
 }
 
+/**
+ * The rel and self link path of an {@link MvcEndpoint}, worked out once and then used
+ * for every {@link EndpointResource} created for that endpoint.
+ */
+class EndpointResourceTemplate {
+
+	private final String rel;
+
+	private final String path;
+
+	private final UnwrappableTypes types;
+
+	public EndpointResourceTemplate(MvcEndpoint endpoint, String rootPath,
+			UnwrappableTypes types) {
+		this.types = types;
+		String rel = endpoint.getPath();
+		this.rel = rel.startsWith("/") && !StringUtils.hasText(rootPath) ? rel
+				.substring(1) : rel;
+		String path = rootPath + this.rel;
+		this.path = path.startsWith("/") ? path : "/" + path;
+	}
+
+	public EndpointResource create(Object embedded) {
+		return create(embedded, currentBase());
+	}
+
+	public EndpointResource create(Object embedded, String base) {
+		return new EndpointResource(embedded, this.rel, new Link(base + this.path),
+				this.types.isUnwrappable(embedded));
+	}
+
+	public static String currentBase() {
+		return ServletUriComponentsBuilder.fromCurrentServletMapping().build()
+				.toUriString();
+	}
+
+}
+
+/**
+ * Decides which endpoint results can be written inline with {@link JsonUnwrapped}. Only a
+ * bean serializer can be unwrapped, so anything else that the {@link ObjectMapper} would
+ * render (e.g. a JsonNode, a {@code @JsonValue} type or one with a custom serializer)
+ * has to be nested instead. The answer is cached per type.
+ */
+class UnwrappableTypes {
+
+	private final ObjectMapper mapper;
+
+	private final Map<Class<?>, Boolean> types = new ConcurrentHashMap<Class<?>, Boolean>();
+
+	public UnwrappableTypes(ObjectMapper mapper) {
+		this.mapper = mapper;
+	}
+
+	public boolean isUnwrappable(Object value) {
+		if (value == null || value instanceof Map) {
+			return false;
+		}
+		Class<?> type = value.getClass();
+		Boolean unwrappable = this.types.get(type);
+		if (unwrappable == null) {
+			unwrappable = findSerializer(type) instanceof BeanSerializerBase;
+			this.types.put(type, unwrappable);
+		}
+		return unwrappable;
+	}
+
+	private JsonSerializer<?> findSerializer(Class<?> type) {
+		try {
+			DefaultSerializerProvider provider = ((DefaultSerializerProvider) this.mapper
+					.getSerializerProvider()).createInstance(
+					this.mapper.getSerializationConfig(),
+					this.mapper.getSerializerFactory());
+			return provider.findValueSerializer(type, null);
+		}
+		catch (JsonMappingException ex) {
+			return null;
+		}
+	}
+
+}
+
+/**
+ * Resource wrapping the result of an {@link MvcEndpoint}. Maps, collections and values
+ * that cannot be unwrapped are rendered through {@link #getDetails()}, and any other
+ * object has its properties written inline next to the links in the same pass, without
+ * converting it to a map first.
+ */
 class EndpointResource extends ResourceSupport {
 
 	private Object embedded;
 	private Map<String, Object> details = new LinkedHashMap<String, Object>();
 	private String rel;
-	private ObjectMapper mapper;
 
 	@JsonCreator
-	public EndpointResource(Object embedded, ObjectMapper mapper, MvcEndpoint endpoint,
-			String rootPath) {
-		this.embedded = embedded;
-		this.mapper = mapper;
-		Class<?> type = endpoint.getEndpointType();
-		type = type == null ? Object.class : type;
-		this.rel = endpoint.getPath();
-		this.rel = this.rel.startsWith("/") && !StringUtils.hasText(rootPath) ? this.rel
-				.substring(1) : this.rel;
-				add(linkTo(type).slash(rootPath + this.rel).withSelfRel());
-				flatten();
+	public EndpointResource(Object embedded, String rel, Link self) {
+		this(embedded, rel, self, true);
+	}
+
+	public EndpointResource(Object embedded, String rel, Link self, boolean unwrappable) {
+		this.rel = rel;
+		add(self);
+		flatten(embedded, unwrappable);
 	}
 
 	@JsonAnyGetter
@@ -195,17 +401,24 @@ class EndpointResource extends ResourceSupport {
 		return this.details;
 	}
 
+	@JsonUnwrapped
+	public Object getEmbedded() {
+		return this.embedded;
+	}
+
 	@SuppressWarnings("unchecked")
-	private void flatten() {
-		if (this.embedded instanceof Collection) {
-			this.details.put(this.rel, this.embedded);
+	private void flatten(Object embedded, boolean unwrappable) {
+		if (embedded instanceof Map) {
+			this.details.putAll((Map<String, Object>) embedded);
 		}
-		else if (this.embedded instanceof Map) {
-			this.details.putAll((Map<String, Object>) this.embedded);
+		else if (!unwrappable || embedded instanceof Collection
+				|| embedded.getClass().isArray()
+				|| BeanUtils.isSimpleValueType(embedded.getClass())) {
+			this.details.put(this.rel, embedded);
 		}
 		else {
-			this.details.putAll(this.mapper.convertValue(this.embedded, Map.class));
+			this.embedded = embedded;
 		}
 	}
 
-}
\ No newline at end of file
+}
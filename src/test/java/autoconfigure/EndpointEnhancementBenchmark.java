@@ -0,0 +1,229 @@
+package autoconfigure;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import demo.SpringBootHypermediaApplication;
+
+/**
+ * Compares the AspectJ proxy that used to wrap endpoint results in an
+ * {@link EndpointResource} with the {@link EndpointResourceReturnValueHandler} that
+ * replaced it: the per-call cost of invoking an endpoint and wrapping its result, and
+ * the time taken to start the application with the auto-proxying (and no handler) and
+ * with the handler. Not run as part of the build: it is compiled with the "prototype"
+ * profile, then run the main method and read the output.
+ *
+ * @author Dave Syer
+ *
+ */
+public class EndpointEnhancementBenchmark {
+
+	private static final int WARMUP = 20000;
+
+	private static final int ITERATIONS = 200000;
+
+	private static final int STARTS = 5;
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkEndpoint endpoint = new BenchmarkEndpoint();
+		calls("proxy", proxy(endpoint), null);
+		calls("handler", endpoint, handler(endpoint));
+		// The "before" case must not install the return value handler as well
+		startup("proxy", "endpoints.enhancement.enabled=false",
+				SpringBootHypermediaApplication.class, LegacyConfiguration.class);
+		startup("handler", "endpoints.enhancement.enabled=true",
+				SpringBootHypermediaApplication.class);
+	}
+
+	private static void calls(String name, BenchmarkEndpoint endpoint,
+			CapturingHandler handler) throws Exception {
+		MethodParameter returnType = new MethodParameter(
+				BenchmarkEndpoint.class.getMethod("invoke"), -1);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bench");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/bench");
+		NativeWebRequest webRequest = new ServletWebRequest(request);
+		// Both cases build their links from the current request
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		long elapsed;
+		try {
+			for (int i = 0; i < WARMUP; i++) {
+				call(endpoint, handler, returnType, webRequest);
+			}
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				call(endpoint, handler, returnType, webRequest);
+			}
+			elapsed = System.nanoTime() - start;
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		System.out.println(String.format("%-8s %8.0f ns/call", name, (double) elapsed
+				/ ITERATIONS));
+	}
+
+	private static Object call(BenchmarkEndpoint endpoint, CapturingHandler handler,
+			MethodParameter returnType, NativeWebRequest webRequest) throws Exception {
+		Object value = endpoint.invoke();
+		if (handler == null) {
+			return value;
+		}
+		handler.handleReturnValue(value, returnType, null, webRequest);
+		return handler.delegate.value;
+	}
+
+	private static void startup(String name, String enhancement, Object... sources) {
+		long total = 0;
+		for (int i = 0; i < STARTS; i++) {
+			long start = System.nanoTime();
+			ConfigurableApplicationContext context = new SpringApplicationBuilder(
+					sources).properties("server.port=0", enhancement).run();
+			total += System.nanoTime() - start;
+			context.close();
+		}
+		System.out.println(String.format("%-8s %8.0f ms/startup", name, total / 1e6
+				/ STARTS));
+	}
+
+	private static BenchmarkEndpoint proxy(BenchmarkEndpoint endpoint) {
+		AspectJProxyFactory factory = new AspectJProxyFactory(endpoint);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(new LegacyEnhancer());
+		return factory.getProxy();
+	}
+
+	private static CapturingHandler handler(BenchmarkEndpoint endpoint)
+			throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.getBeanFactory().registerSingleton("benchmarkEndpoint", endpoint);
+		context.refresh();
+		MvcEndpoints endpoints = new MvcEndpoints();
+		endpoints.setApplicationContext(context);
+		endpoints.afterPropertiesSet();
+		return new CapturingHandler(new Capture(), endpoints);
+	}
+
+	public static class BenchmarkEndpoint implements MvcEndpoint {
+
+		private final Map<String, Object> result = Collections
+				.<String, Object> singletonMap("status", "UP");
+
+		@RequestMapping
+		@ResponseBody
+		public Map<String, Object> invoke() {
+			return this.result;
+		}
+
+		@Override
+		public String getPath() {
+			return "/bench";
+		}
+
+		@Override
+		public boolean isSensitive() {
+			return false;
+		}
+
+		@Override
+		public Class<? extends Endpoint<?>> getEndpointType() {
+			return null;
+		}
+
+	}
+
+	/**
+	 * The advice that the auto-configuration used to apply through an auto-proxy. Like
+	 * the handler it works out the template of each endpoint once, so the comparison is
+	 * between the two ways of intercepting the result rather than the set up.
+	 */
+	@Aspect
+	public static class LegacyEnhancer {
+
+		private final UnwrappableTypes types = new UnwrappableTypes(new ObjectMapper());
+
+		private final Map<MvcEndpoint, EndpointResourceTemplate> templates = new ConcurrentHashMap<MvcEndpoint, EndpointResourceTemplate>();
+
+		@Around("execution(@org.springframework.web.bind.annotation.RequestMapping public "
+				+ "* org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint+.*(..))"
+				+ " && !execution(* endpoints.LinksMvcEndpoint+.*(..))"
+				+ " && !execution(* endpoints.HalBrowserEndpoint+.*(..))")
+		public Object enhance(ProceedingJoinPoint joinPoint) throws Throwable {
+			MvcEndpoint endpoint = (MvcEndpoint) joinPoint.getTarget();
+			EndpointResourceTemplate template = this.templates.get(endpoint);
+			if (template == null) {
+				template = new EndpointResourceTemplate(endpoint, "", this.types);
+				this.templates.put(endpoint, template);
+			}
+			return template.create(joinPoint.proceed());
+		}
+
+	}
+
+	@Configuration
+	@EnableAspectJAutoProxy(proxyTargetClass = true)
+	protected static class LegacyConfiguration {
+
+		@Bean
+		public LegacyEnhancer legacyEnhancer() {
+			return new LegacyEnhancer();
+		}
+
+	}
+
+	private static class CapturingHandler extends EndpointResourceReturnValueHandler {
+
+		private final Capture delegate;
+
+		public CapturingHandler(Capture delegate, MvcEndpoints endpoints) {
+			super(delegate, endpoints, "", new UnwrappableTypes(new ObjectMapper()));
+			this.delegate = delegate;
+		}
+
+	}
+
+	private static class Capture implements HandlerMethodReturnValueHandler {
+
+		private Object value;
+
+		@Override
+		public boolean supportsReturnType(MethodParameter returnType) {
+			return true;
+		}
+
+		@Override
+		public void handleReturnValue(Object returnValue, MethodParameter returnType,
+				ModelAndViewContainer mavContainer, NativeWebRequest webRequest) {
+			this.value = returnValue;
+		}
+
+	}
+
+}
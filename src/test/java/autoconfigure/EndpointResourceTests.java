@@ -0,0 +1,67 @@
+package autoconfigure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class EndpointResourceTests {
+
+	private ObjectMapper mapper = new ObjectMapper();
+
+	private UnwrappableTypes types = new UnwrappableTypes(this.mapper);
+
+	@Test
+	public void beanUnwrapped() throws Exception {
+		assertTrue(this.types.isUnwrappable(new Bean()));
+		JsonNode node = write(new Bean());
+		assertEquals("bar", node.get("foo").asText());
+	}
+
+	@Test
+	public void treeNested() throws Exception {
+		JsonNode tree = this.mapper.valueToTree(Collections.singletonMap("foo", "bar"));
+		assertFalse(this.types.isUnwrappable(tree));
+		JsonNode node = write(tree);
+		assertEquals("bar", node.at("/bench/foo").asText());
+	}
+
+	@Test
+	public void jsonValueNested() throws Exception {
+		assertFalse(this.types.isUnwrappable(new Value()));
+		JsonNode node = write(new Value());
+		assertEquals("value", node.get("bench").asText());
+	}
+
+	private JsonNode write(Object value) throws Exception {
+		EndpointResource resource = new EndpointResource(value, "bench", new Link(
+				"/bench"), this.types.isUnwrappable(value));
+		return this.mapper.readTree(this.mapper.writeValueAsString(resource));
+	}
+
+	public static class Bean {
+
+		public String getFoo() {
+			return "bar";
+		}
+
+	}
+
+	public static class Value {
+
+		@JsonValue
+		public String getValue() {
+			return "value";
+		}
+
+	}
+
+}